@@ -0,0 +1,200 @@
+/**
+ * Adaptive replacement cache (Megiddo and Modha). Resident frames are split
+ * between T1, blocks seen once recently, and T2, blocks seen at least
+ * twice. The ghost lists B1 and B2 remember blocks evicted from each side,
+ * and a miss on a ghost moves the target size p of T1 toward the side that
+ * would have kept the block. A pinned frame leaves its list but stays in T1
+ * or T2, and goes back to the head of the same list.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class ArcPolicy implements EvictionPolicy {
+    private static final byte NONE = 0;
+    private static final byte IN_T1 = 1;
+    private static final byte IN_T2 = 2;
+    private FrameList t1;
+    private FrameList t2;
+    private DoublyLinkedList<Integer> b1;
+    private DoublyLinkedList<Integer> b2;
+    private HashTable<Integer, DualNode<Integer>> b1Map;
+    private HashTable<Integer, DualNode<Integer>> b2Map;
+    private byte[] listOf;
+    private int[] blockOf;
+    private int capacity;
+    private int target;
+
+    /**
+     * Constructor for the ArcPolicy class
+     *
+     * @param capacity
+     *            the number of frames in the pool
+     */
+    public ArcPolicy(int capacity) {
+        this.capacity = capacity;
+        t1 = new FrameList(capacity);
+        t2 = new FrameList(capacity);
+        b1 = new DoublyLinkedList<>();
+        b2 = new DoublyLinkedList<>();
+        b1Map = new HashTable<>();
+        b2Map = new HashTable<>();
+        listOf = new byte[capacity];
+        blockOf = new int[capacity];
+    }
+
+
+    @Override
+    public String getName() {
+        return "arc";
+    }
+
+
+    @Override
+    public void recordHit(int frame) {
+        if (listOf[frame] == IN_T1) {
+            t1.deleteNode(frame);
+            t2.prependNode(frame);
+            listOf[frame] = IN_T2;
+        }
+        else if (listOf[frame] == IN_T2) {
+            t2.elevate(frame);
+        }
+    }
+
+
+    @Override
+    public void recordInsert(int frame, int blockIndex) {
+        blockOf[frame] = blockIndex;
+        DualNode<Integer> ghost = b1Map.delete(blockIndex);
+        if (ghost != null) {
+            b1.deleteNode(ghost);
+        }
+        else {
+            ghost = b2Map.delete(blockIndex);
+            if (ghost != null) {
+                b2.deleteNode(ghost);
+            }
+        }
+        if (ghost != null) {
+            t2.prependNode(frame);
+            listOf[frame] = IN_T2;
+        }
+        else {
+            t1.prependNode(frame);
+            listOf[frame] = IN_T1;
+        }
+    }
+
+
+    @Override
+    public void recordPin(int frame) {
+        listFor(frame).deleteNode(frame);
+    }
+
+
+    @Override
+    public void recordUnpin(int frame, int blockIndex) {
+        listFor(frame).prependNode(frame);
+    }
+
+
+    @Override
+    public int selectVictim(int incomingBlock) {
+        if (t1.listIsEmpty() && t2.listIsEmpty()) {
+            return -1;
+        }
+        boolean inB1 = b1Map.fetch(incomingBlock) != null;
+        boolean inB2 = b2Map.fetch(incomingBlock) != null;
+        if (inB1) {
+            int delta = Math.max(b2.listSize() / b1.listSize(), 1);
+            target = Math.min(capacity, target + delta);
+            return replace(false);
+        }
+        if (inB2) {
+            int delta = Math.max(b1.listSize() / b2.listSize(), 1);
+            target = Math.max(0, target - delta);
+            return replace(true);
+        }
+        int t1Side = t1.listSize() + b1.listSize();
+        if (t1Side >= capacity) {
+            if (t1.listSize() < capacity && !b1.listIsEmpty()) {
+                b1Map.delete(b1.extractFromEnd().getElementData());
+                return replace(false);
+            }
+            return evictTail(t1, false);
+        }
+        int total = t1Side + t2.listSize() + b2.listSize();
+        if (total >= 2 * capacity && !b2.listIsEmpty()) {
+            b2Map.delete(b2.extractFromEnd().getElementData());
+        }
+        return replace(false);
+    }
+
+
+    @Override
+    public void remove(int frame) {
+        if (listOf[frame] != NONE && listFor(frame).hasFrame(frame)) {
+            listFor(frame).deleteNode(frame);
+        }
+        listOf[frame] = NONE;
+    }
+
+
+    /**
+     * Gets the list a tracked frame belongs to
+     *
+     * @param frame
+     *            the frame
+     * @return T1 or T2
+     */
+    private FrameList listFor(int frame) {
+        return listOf[frame] == IN_T2 ? t2 : t1;
+    }
+
+
+    /**
+     * The ARC replace step: evicts from T1 when it is over its target size,
+     * otherwise from T2, and remembers the victim in the matching ghost list
+     *
+     * @param incomingInB2
+     *            true if the incoming block is a B2 ghost
+     * @return the victim frame
+     */
+    private int replace(boolean incomingInB2) {
+        int t1Size = t1.listSize();
+        if (t1Size > 0 && (t1Size > target || (incomingInB2
+            && t1Size == target) || t2.listIsEmpty())) {
+            return evictTail(t1, true);
+        }
+        return evictTail(t2, true);
+    }
+
+
+    /**
+     * Evicts the least recently used frame of a list
+     *
+     * @param list
+     *            T1 or T2
+     * @param remember
+     *            true to add the victim block to the matching ghost list
+     * @return the victim frame
+     */
+    private int evictTail(FrameList list, boolean remember) {
+        int frame = list.fetchTail();
+        boolean fromT1 = listOf[frame] == IN_T1;
+        remove(frame);
+        if (remember) {
+            DualNode<Integer> ghost = new DualNode<>(blockOf[frame]);
+            if (fromT1) {
+                b1.prependNode(ghost);
+                b1Map.add(blockOf[frame], ghost);
+            }
+            else {
+                b2.prependNode(ghost);
+                b2Map.add(blockOf[frame], ghost);
+            }
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,36 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a BufferPool frame given to another block. Its
+ * duration covers writing the victim back when it was dirty.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@Name("project3.BlockEviction")
+@Label("Block Eviction")
+@Category({ "Project3", "Buffer Pool" })
+@Description("A buffer pool frame reused for another block")
+@StackTrace(false)
+public class BlockEvictionEvent extends jdk.jfr.Event {
+    /** The block that was evicted */
+    @Label("Victim Block")
+    public int victimBlock;
+
+    /** The block that missed */
+    @Label("Incoming Block")
+    public int incomingBlock;
+
+    /** True if the victim had to be written back */
+    @Label("Dirty")
+    public boolean dirty;
+
+    /** The eviction policy that chose the victim */
+    @Label("Policy")
+    public String policy;
+}
@@ -0,0 +1,32 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a block read into a BufferPool frame on a
+ * miss. Its duration is the time the read took.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@Name("project3.BlockLoad")
+@Label("Block Load")
+@Category({ "Project3", "Buffer Pool" })
+@Description("A block read into the buffer pool on a miss")
+@StackTrace(false)
+public class BlockLoadEvent extends jdk.jfr.Event {
+    /** The block read */
+    @Label("Block")
+    public int blockIndex;
+
+    /** The frame the block was read into */
+    @Label("Frame")
+    public int frameIndex;
+
+    /** True if read-ahead had already staged the block */
+    @Label("Prefetched")
+    public boolean prefetched;
+}
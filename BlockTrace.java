@@ -0,0 +1,180 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Compact binary trace of the blocks the BufferPool looks up. Back to back
+ * lookups of the same block are folded into one run, and each run is
+ * stored as two variable-length numbers: the zigzag-coded difference from
+ * the previous run's block, then the lookup count shifted left by one with
+ * the low bit set if any lookup in the run was for a write. Sequential
+ * sweeps therefore cost about two bytes per block. A write made through a
+ * pinned block is not a lookup, so it only sets the flag of the current run
+ * when that run is the same block, and otherwise is stored as a run of zero
+ * lookups.
+ *
+ * The file starts with the magic number and the number of blocks in the
+ * data file. TraceAnalyzer replays it.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class BlockTrace {
+    /** First four bytes of every trace file */
+    public static final int MAGIC = 0x42545231;
+    private DataOutputStream out;
+    private int runBlock;
+    private int runCount;
+    private boolean runWrote;
+    private int lastBlock;
+    private long lookups;
+
+    /**
+     * Constructor for the BlockTrace class
+     *
+     * @param fileName
+     *            where to write the trace
+     * @param totalBlocks
+     *            the number of blocks in the data file
+     * @throws IOException
+     *             if error in creating the file
+     */
+    public BlockTrace(String fileName, int totalBlocks) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(fileName), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(totalBlocks);
+        runBlock = -1;
+    }
+
+
+    /**
+     * Records one lookup
+     *
+     * @param blockIdx
+     *            the block looked up
+     * @param write
+     *            true if the lookup was for a write
+     * @throws IOException
+     *             if error in writing the trace
+     */
+    public synchronized void record(int blockIdx, boolean write)
+        throws IOException {
+        lookups++;
+        if (blockIdx == runBlock) {
+            runCount++;
+            runWrote |= write;
+            return;
+        }
+        flushRun();
+        runBlock = blockIdx;
+        runCount = 1;
+        runWrote = write;
+    }
+
+
+    /**
+     * Records a write to a block without counting a lookup
+     *
+     * @param blockIdx
+     *            the block written
+     * @throws IOException
+     *             if error in writing the trace
+     */
+    public synchronized void markWritten(int blockIdx) throws IOException {
+        if (blockIdx == runBlock) {
+            runWrote = true;
+            return;
+        }
+        flushRun();
+        runBlock = blockIdx;
+        runCount = 0;
+        runWrote = true;
+    }
+
+
+    /**
+     * Gets how many lookups were recorded
+     *
+     * @return the number of lookups
+     */
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+
+    /**
+     * Writes the last run and closes the file
+     *
+     * @throws IOException
+     *             if error in writing the trace
+     */
+    public synchronized void close() throws IOException {
+        flushRun();
+        runBlock = -1;
+        out.close();
+    }
+
+
+    /**
+     * Reads a variable-length number written by the trace
+     *
+     * @param in
+     *            the trace
+     * @return the number
+     * @throws IOException
+     *             if error in reading, or EOFException at the end
+     */
+    public static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int next = in.read();
+            if (next < 0) {
+                throw new EOFException();
+            }
+            value |= (long)(next & 0x7F) << shift;
+            if (next < 0x80) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt trace");
+    }
+
+
+    /**
+     * Writes out the current run, if there is one
+     *
+     * @throws IOException
+     *             if error in writing the trace
+     */
+    private void flushRun() throws IOException {
+        if (runBlock < 0) {
+            return;
+        }
+        long delta = (long)runBlock - lastBlock;
+        writeVarint((delta << 1) ^ (delta >> 63));
+        writeVarint(((long)runCount << 1) | (runWrote ? 1 : 0));
+        lastBlock = runBlock;
+    }
+
+
+    /**
+     * Writes a variable-length number, seven bits per byte
+     *
+     * @param value
+     *            the number, not negative
+     * @throws IOException
+     *             if error in writing the trace
+     */
+    private void writeVarint(long value) throws IOException {
+        while (value >= 0x80) {
+            out.write((int)(value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int)value);
+    }
+}
@@ -1,23 +1,72 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The BufferPool class
  *
+ * The frames are split into segments, each with its own page table,
+ * eviction policy, read-ahead and write-back, and a block always belongs
+ * to the same segment. With "-threads=n" above one, each segment is
+ * guarded by its own lock so concurrent callers only wait on each other
+ * when they touch blocks of the same segment. Blocks are dealt to segments
+ * in stripes of consecutive blocks so a sequential sweep stays in one
+ * segment for a while.
+ *
  * @author Brettn
  * @author cpiyush854
  * @version 11/1/2023
  */
 public class BufferPool {
     private static final int BLOCK_SIZE = 4096;
-    private HashTable<Integer, DualNode<Buffer>> cacheMap;
-    private DoublyLinkedList<Buffer> cacheSequence;
+    private static final int RECORD_SIZE = 4;
+    private static final int ARENA_CHUNK_BLOCKS = (1 << 30) / BLOCK_SIZE;
+    private static final int STRIPE_BLOCKS = 16;
+    private static final int MIN_SEGMENT_FRAMES = 16;
+    private static final int MIN_DIRTY_FRAMES = 8;
+    private static final int MAX_GATHER = 256;
+    private static final Comparator<Buffer> BY_BLOCK = Comparator
+        .comparingInt(block -> block.blockIndex);
+    private Segment[] segments;
     private RandomAccessFile fileAccessor;
     private int cacheCapacity;
     private int totalBlocks;
+    private boolean concurrent;
+    private MappedBlockStore mappedStore;
+    private ExecutorService ioWorker;
+    private LongAdder writeCalls;
+    private long startTime;
+    private StringBuilder sizeLog;
+    private int sizeChanges;
+    private BlockTrace trace;
+    private LongAdder bytesRead;
+    private LatencyHistogram seekTimer;
+    private LatencyHistogram loadTimer;
+    private LatencyHistogram purgeTimer;
 
     /**
-     * Constructor for the BufferPool class
+     * Constructor for the BufferPool class. The "-backend=mmap" option
+     * serves the file from a memory mapping instead of the buffers,
+     * "-policy=name" picks the eviction policy (lru by default),
+     * "-readahead=n" reads up to n blocks ahead of sequential sweeps,
+     * "-dirtyhigh=f" starts background write-back once more than that
+     * fraction of the frames is dirty, cleaning down to "-dirtylow=f", and
+     * "-threads=n" makes the pool safe for n callers, split into
+     * "-stripes=s" segments. By default there are four segments per
+     * thread, but never so many that a segment holds fewer than
+     * MIN_SEGMENT_FRAMES frames, since a small segment thrashes. With
+     * "-poolbytes=size" the pool starts at the given number of buffers and
+     * then grows and shrinks as it runs, never holding more than that many
+     * bytes of frames. "-trace=file" writes every block lookup to a
+     * BlockTrace for TraceAnalyzer.
      *
      * @param parameters
      *            the parameters from command line
@@ -25,28 +74,178 @@ public class BufferPool {
      *             if error in creating BufferPool
      */
     public BufferPool(String[] parameters) throws IOException {
+        RunOptions options = new RunOptions(parameters);
+        writeCalls = new LongAdder();
+        bytesRead = MetricsRegistry.counter("bytes read");
+        seekTimer = MetricsRegistry.timer("seekBlock");
+        loadTimer = MetricsRegistry.timer("load");
+        purgeTimer = MetricsRegistry.timer("purge");
+        startTime = System.nanoTime();
         fileAccessor = new RandomAccessFile(parameters[0], "rw");
         cacheCapacity = Integer.parseInt(parameters[1]);
-        totalBlocks = (int)fileAccessor.length() / BLOCK_SIZE;
-        initializeCache();
+        totalBlocks = (int)(fileAccessor.length() / BLOCK_SIZE);
+        int threads = options.getInt("threads", 1);
+        concurrent = threads > 1;
+        String backend = options.getString("backend", "raf");
+        Quicksort.recordDetail("Backend", backend);
+        if (backend.equals("mmap")) {
+            mappedStore = new MappedBlockStore(fileAccessor.getChannel(),
+                concurrent);
+        }
+        else if (backend.equals("raf")) {
+            long poolBytes = options.getLong("poolbytes", 0);
+            int initialFrames = cacheCapacity;
+            if (poolBytes > 0) {
+                cacheCapacity = (int)Math.min(Integer.MAX_VALUE, Math.max(1,
+                    poolBytes / BLOCK_SIZE));
+                initialFrames = Math.min(initialFrames, cacheCapacity);
+                sizeLog = new StringBuilder();
+                Quicksort.recordDetail("Pool ceiling", String.valueOf(
+                    (long)cacheCapacity * BLOCK_SIZE));
+            }
+            int stripes = options.getInt("stripes", concurrent
+                ? Math.min(threads * 4, cacheCapacity / MIN_SEGMENT_FRAMES)
+                : 1);
+            initializeCache(Math.max(1, Math.min(stripes, cacheCapacity)),
+                initialFrames, options);
+            String traceFile = options.getString("trace", null);
+            if (traceFile != null) {
+                trace = new BlockTrace(traceFile, totalBlocks);
+            }
+            Quicksort.recordDetail("Policy", segments[0].policy.getName());
+            if (segments.length > 1) {
+                Quicksort.recordDetail("Segments", String.valueOf(
+                    segments.length));
+            }
+        }
+        else {
+            throw new IllegalArgumentException("Unknown backend: "
+                + backend);
+        }
+    }
+
+
+    /**
+     * Creates the segments for cache. With a fixed size the frames are
+     * slices of one off-heap arena, allocated in 1 GB chunks so large pools
+     * stay off the heap. An adaptive pool allocates each frame when it is
+     * first needed and drops it again when the pool shrinks.
+     *
+     * @param segmentCount
+     *            how many segments to split the frames between
+     * @param initialFrames
+     *            how many frames an adaptive pool starts with
+     * @param options
+     *            the command line options
+     */
+    private void initializeCache(
+        int segmentCount,
+        int initialFrames,
+        RunOptions options) {
+        Buffer[] frames = new Buffer[cacheCapacity];
+        if (sizeLog == null) {
+            FileChannel channel = fileAccessor.getChannel();
+            ByteBuffer arena = null;
+            for (int i = 0; i < cacheCapacity; i++) {
+                int slot = i % ARENA_CHUNK_BLOCKS;
+                if (slot == 0) {
+                    arena = ByteBuffer.allocateDirect(Math.min(cacheCapacity
+                        - i, ARENA_CHUNK_BLOCKS) * BLOCK_SIZE);
+                }
+                frames[i] = new Buffer(channel, arena.slice(slot * BLOCK_SIZE,
+                    BLOCK_SIZE));
+            }
+        }
+        segments = new Segment[segmentCount];
+        int first = 0;
+        for (int s = 0; s < segmentCount; s++) {
+            int size = cacheCapacity / segmentCount + (s < cacheCapacity
+                % segmentCount ? 1 : 0);
+            PoolSizer sizer = null;
+            if (sizeLog != null) {
+                int initial = initialFrames / segmentCount + (s < initialFrames
+                    % segmentCount ? 1 : 0);
+                sizer = new PoolSizer(initial, Math.min(size, 4), size, Math
+                    .max(8, size / 16));
+            }
+            segments[s] = new Segment(Arrays.copyOfRange(frames, first, first
+                + size), sizer, options);
+            first += size;
+        }
+        if (sizeLog != null) {
+            logPoolSize();
+        }
     }
 
 
     /**
-     * Creates HashTable for cache
+     * Adds the current total size of an adaptive pool to the size log. The
+     * log keeps the first 64 changes, later ones are only counted.
      */
-    private void initializeCache() throws IOException {
-        cacheMap = new HashTable<>(cacheCapacity);
-        cacheSequence = new DoublyLinkedList<>();
-        for (int i = 0; i < cacheCapacity; i++) {
-            DualNode<Buffer> node = new DualNode<>(new Buffer(fileAccessor,
-                -1));
-            cacheMap.add(-1, node);
-            cacheSequence.prependNode(node);
+    private synchronized void logPoolSize() {
+        int frames = 0;
+        for (Segment segment : segments) {
+            if (segment != null) {
+                frames += segment.sizer.getTarget();
+            }
+        }
+        if (sizeChanges++ < 64) {
+            sizeLog.append(sizeLog.length() == 0 ? "" : " ").append(frames)
+                .append('@').append((System.nanoTime() - startTime) / 1000000)
+                .append("ms");
         }
     }
 
 
+    /**
+     * Gets the background I/O thread, starting it on first use
+     *
+     * @return the I/O thread's executor
+     */
+    private synchronized ExecutorService getIoWorker() {
+        if (ioWorker == null) {
+            ioWorker = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "block-io");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return ioWorker;
+    }
+
+
+    /**
+     * Accessor method for the number of buffers
+     *
+     * @return number of buffers the pool was given
+     */
+    public int getCapacity() {
+        return cacheCapacity;
+    }
+
+
+    /**
+     * Gets how many blocks of a long range the pool can hold at once at its
+     * current size. The range's stripes are shared evenly between the
+     * segments, so the smallest segment sets the bound, and an adaptive
+     * segment counts only the frames it is sized for now. The sizes are
+     * read without the segment locks, so a resize during the call may leave
+     * the answer one epoch out of date.
+     *
+     * @return the number of blocks
+     */
+    public int getResidentCapacity() {
+        if (mappedStore != null) {
+            return cacheCapacity;
+        }
+        int smallest = Integer.MAX_VALUE;
+        for (Segment segment : segments) {
+            smallest = Math.min(smallest, segment.targetFrames());
+        }
+        return smallest * segments.length;
+    }
+
+
     /**
      * Accessor method for total blocks
      *
@@ -67,13 +266,23 @@ public class BufferPool {
      * @param position
      *            where to write bytes to
      */
-    public void writeData(byte[] buffer, int size, int position) {
+    public void writeData(byte[] buffer, int size, long position) {
         try {
-            Buffer cacheBlock = seekBlock(position);
-            int localOffset = position % BLOCK_SIZE;
-            System.arraycopy(buffer, 0, cacheBlock.blockData, localOffset,
-                size);
-            cacheBlock.setDirty(true);
+            if (mappedStore != null) {
+                mappedStore.writeData(buffer, size, position);
+                return;
+            }
+            Segment segment = segmentFor((int)(position / BLOCK_SIZE));
+            segment.enter();
+            try {
+                Buffer cacheBlock = segment.seekBlock(position, true);
+                int localOffset = (int)(position % BLOCK_SIZE);
+                cacheBlock.blockData.put(localOffset, buffer, 0, size);
+                segment.markWritten(cacheBlock);
+            }
+            finally {
+                segment.exit();
+            }
         }
         catch (IOException e) {
             e.printStackTrace();
@@ -91,12 +300,22 @@ public class BufferPool {
      * @param position
      *            where to read the bytes from
      */
-    public void readData(byte[] buffer, int size, int position) {
+    public void readData(byte[] buffer, int size, long position) {
         try {
-            Buffer cacheBlock = seekBlock(position);
-            int localOffset = position % BLOCK_SIZE;
-            System.arraycopy(cacheBlock.blockData, localOffset, buffer, 0,
-                size);
+            if (mappedStore != null) {
+                mappedStore.readData(buffer, size, position);
+                return;
+            }
+            Segment segment = segmentFor((int)(position / BLOCK_SIZE));
+            segment.enter();
+            try {
+                Buffer cacheBlock = segment.seekBlock(position, false);
+                int localOffset = (int)(position % BLOCK_SIZE);
+                cacheBlock.blockData.get(localOffset, buffer, 0, size);
+            }
+            finally {
+                segment.exit();
+            }
         }
         catch (IOException e) {
             e.printStackTrace();
@@ -104,6 +323,370 @@ public class BufferPool {
     }
 
 
+    /**
+     * Reads a whole 4-byte record without allocating. The key is the high
+     * 16 bits of the result.
+     *
+     * @param recordIndex
+     *            the index of the record
+     * @return the record as a big-endian int
+     */
+    public int readRecord(long recordIndex) {
+        long position = recordIndex * RECORD_SIZE;
+        try {
+            if (mappedStore != null) {
+                return mappedStore.readInt(position);
+            }
+            Segment segment = segmentFor((int)(position / BLOCK_SIZE));
+            segment.enter();
+            try {
+                return segment.seekBlock(position, false).blockData.getInt(
+                    (int)(position % BLOCK_SIZE));
+            }
+            finally {
+                segment.exit();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Reads the 2-byte key of a record without allocating
+     *
+     * @param recordIndex
+     *            the index of the record
+     * @return the key
+     */
+    public short readKey(long recordIndex) {
+        return (short)(readRecord(recordIndex) >> 16);
+    }
+
+
+    /**
+     * Indicates if reading a record would not cost a disk read. With the
+     * mmap backend the operating system decides, so this is always true.
+     *
+     * @param recordIndex
+     *            the index of the record
+     * @return true if the record's block is in the pool
+     */
+    public boolean isResident(long recordIndex) {
+        if (mappedStore != null) {
+            return true;
+        }
+        int blockIdx = (int)(recordIndex * RECORD_SIZE / BLOCK_SIZE);
+        Segment segment = segmentFor(blockIdx);
+        segment.enter();
+        try {
+            return segment.cacheMap.get(blockIdx) != PageTable.ABSENT;
+        }
+        finally {
+            segment.exit();
+        }
+    }
+
+
+    /**
+     * Writes a whole 4-byte record without allocating. Writing the value
+     * the record already holds leaves the block clean.
+     *
+     * @param recordIndex
+     *            the index of the record
+     * @param value
+     *            the record as a big-endian int
+     */
+    public void writeRecord(long recordIndex, int value) {
+        long position = recordIndex * RECORD_SIZE;
+        try {
+            if (mappedStore != null) {
+                mappedStore.writeInt(position, value);
+                return;
+            }
+            Segment segment = segmentFor((int)(position / BLOCK_SIZE));
+            segment.enter();
+            try {
+                Buffer cacheBlock = segment.seekBlock(position, true);
+                int offset = (int)(position % BLOCK_SIZE);
+                if (cacheBlock.blockData.getInt(offset) != value) {
+                    cacheBlock.blockData.putInt(offset, value);
+                    segment.markWritten(cacheBlock);
+                }
+            }
+            finally {
+                segment.exit();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Copies a run of records into an array with one pool lookup per block
+     *
+     * @param first
+     *            the index of the first record
+     * @param records
+     *            where the records go, from index 0
+     * @param count
+     *            how many records to copy
+     */
+    public void readRecords(long first, int[] records, int count) {
+        transferRecords(first, records, count, false);
+    }
+
+
+    /**
+     * Copies an array into a run of records with one pool lookup per block.
+     * Blocks whose records all keep their value stay clean.
+     *
+     * @param first
+     *            the index of the first record
+     * @param records
+     *            the records to write, from index 0
+     * @param count
+     *            how many records to copy
+     */
+    public void writeRecords(long first, int[] records, int count) {
+        transferRecords(first, records, count, true);
+    }
+
+
+    /**
+     * Moves a run of records between the pool and an array, one block at a
+     * time
+     *
+     * @param first
+     *            the index of the first record
+     * @param records
+     *            the array side of the copy
+     * @param count
+     *            how many records to copy
+     * @param toPool
+     *            true to write the array into the pool, false to read
+     */
+    private void transferRecords(
+        long first,
+        int[] records,
+        int count,
+        boolean toPool) {
+        try {
+            int done = 0;
+            while (done < count) {
+                long position = (first + done) * RECORD_SIZE;
+                int offset = (int)(position % BLOCK_SIZE);
+                int inBlock = Math.min(count - done, (BLOCK_SIZE - offset)
+                    / RECORD_SIZE);
+                if (mappedStore != null) {
+                    for (int k = 0; k < inBlock; k++) {
+                        long at = position + k * RECORD_SIZE;
+                        if (toPool) {
+                            mappedStore.writeInt(at, records[done + k]);
+                        }
+                        else {
+                            records[done + k] = mappedStore.readInt(at);
+                        }
+                    }
+                }
+                else {
+                    transferBlock(position, records, done, inBlock, toPool);
+                }
+                done += inBlock;
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Moves records that all sit in one block between the pool and an
+     * array. The block's segment stays locked for the whole copy instead
+     * of the block being pinned, so concurrent transfers can never leave a
+     * small segment with every frame pinned.
+     *
+     * @param position
+     *            the file position of the first record
+     * @param records
+     *            the array side of the copy
+     * @param from
+     *            the array index of the first record
+     * @param count
+     *            how many records to copy
+     * @param toPool
+     *            true to write the array into the pool, false to read
+     * @throws IOException
+     *             if error in loading or writing back a block
+     */
+    private void transferBlock(
+        long position,
+        int[] records,
+        int from,
+        int count,
+        boolean toPool)
+        throws IOException {
+        Segment segment = segmentFor((int)(position / BLOCK_SIZE));
+        segment.enter();
+        try {
+            Buffer cacheBlock = segment.seekBlock(position, toPool);
+            int offset = (int)(position % BLOCK_SIZE);
+            boolean changed = false;
+            for (int k = 0; k < count; k++) {
+                int at = offset + k * RECORD_SIZE;
+                if (!toPool) {
+                    records[from + k] = cacheBlock.blockData.getInt(at);
+                }
+                else if (cacheBlock.blockData.getInt(at) != records[from
+                    + k]) {
+                    cacheBlock.blockData.putInt(at, records[from + k]);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                segment.markWritten(cacheBlock);
+            }
+        }
+        finally {
+            segment.exit();
+        }
+    }
+
+
+    /**
+     * Swaps two records. Nothing is written if they are equal. The swap is
+     * not atomic, so concurrent callers must work on disjoint records.
+     *
+     * @param first
+     *            the index of the first record
+     * @param second
+     *            the index of the second record
+     */
+    public void swapRecords(long first, long second) {
+        int firstValue = readRecord(first);
+        int secondValue = readRecord(second);
+        if (firstValue != secondValue) {
+            writeRecord(first, secondValue);
+            writeRecord(second, firstValue);
+        }
+    }
+
+
+    /**
+     * Indicates if a number of blocks can be pinned at once wherever they
+     * fall, with a frame to spare in every segment for loading other
+     * blocks
+     *
+     * @param pins
+     *            how many blocks may be pinned at the same time
+     * @return true if every segment has more frames than that, false if
+     *         not or if the mmap backend is in use
+     */
+    public boolean canPin(int pins) {
+        if (mappedStore != null) {
+            return false;
+        }
+        for (Segment segment : segments) {
+            if (segment.frames.length <= pins) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Pins a block in the pool, loading it if needed. The frame is not
+     * evicted until every pin on it is released with unpin, so the handle
+     * can be used for any number of records at the cost of one lookup.
+     * Each pin must be matched by one unpin.
+     *
+     * @param blockIndex
+     *            the index of the block
+     * @return a handle onto the block's frame
+     * @throws IllegalStateException
+     *             if every frame that could hold the block is pinned, or
+     *             the mmap backend is in use
+     */
+    public PinnedBlock pin(int blockIndex) {
+        if (mappedStore != null) {
+            throw new IllegalStateException(
+                "Blocks cannot be pinned with the mmap backend");
+        }
+        Segment segment = segmentFor(blockIndex);
+        segment.enter();
+        try {
+            Buffer cacheBlock = segment.seekBlock((long)blockIndex
+                * BLOCK_SIZE, false);
+            if (cacheBlock.pins++ == 0) {
+                segment.policy.recordPin(cacheBlock.frameIndex);
+            }
+            return new PinnedBlock(cacheBlock);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            segment.exit();
+        }
+    }
+
+
+    /**
+     * Records that a pinned block was written through its handle, so it
+     * is written back before the frame is reused
+     *
+     * @param handle
+     *            the pinned block
+     */
+    public void markDirty(PinnedBlock handle) {
+        Segment segment = handle.checkPinned().owner;
+        segment.enter();
+        try {
+            if (trace != null) {
+                trace.markWritten(handle.blockIndex);
+            }
+            segment.markWritten(handle.frame);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            segment.exit();
+        }
+    }
+
+
+    /**
+     * Releases a pin. Once the last pin is released the eviction policy may
+     * choose the frame again, with the list or history it had when pinned.
+     *
+     * @param handle
+     *            the pinned block
+     * @throws IllegalStateException
+     *             if the handle was already released
+     */
+    public void unpin(PinnedBlock handle) {
+        Buffer cacheBlock = handle.checkPinned();
+        handle.frame = null;
+        Segment segment = cacheBlock.owner;
+        segment.enter();
+        try {
+            if (--cacheBlock.pins == 0) {
+                segment.policy.recordUnpin(cacheBlock.frameIndex,
+                    cacheBlock.blockIndex);
+            }
+        }
+        finally {
+            segment.exit();
+        }
+    }
+
+
     /**
      * Purges the cache
      *
@@ -111,55 +694,748 @@ public class BufferPool {
      *             if error in purge
      */
     public void purge() throws IOException {
-        for (Buffer block : cacheSequence) {
-            block.sync(); // Only writes back if the block is dirty.
+        long purgeStart = purgeTimer != null ? System.nanoTime() : 0;
+        if (mappedStore != null) {
+            mappedStore.flush();
+            Quicksort.recordDetail("Windows mapped", String.valueOf(
+                mappedStore.getWindowLoads()));
+            if (purgeTimer != null) {
+                purgeTimer.recordSince(purgeStart);
+            }
+            return;
+        }
+        PoolPurgeEvent purgeEvent = new PoolPurgeEvent();
+        purgeEvent.begin();
+        for (Segment segment : segments) {
+            segment.enter();
+        }
+        int dirtyFrames = 0;
+        try {
+            for (Segment segment : segments) {
+                segment.purge();
+                dirtyFrames += segment.dirtyCount;
+            }
+            syncAll();
+        }
+        finally {
+            for (Segment segment : segments) {
+                segment.exit();
+            }
+        }
+        int inlineWrites = 0;
+        int backgroundWrites = 0;
+        long calls = writeCalls.sum();
+        int[] readAheadTotals = new int[4];
+        for (Segment segment : segments) {
+            inlineWrites += segment.inlineWrites;
+            if (segment.writeBack != null) {
+                backgroundWrites += segment.writeBack.getWrites();
+                calls += segment.writeBack.getWriteCalls();
+            }
+            if (segment.readAhead != null) {
+                readAheadTotals[0] += segment.readAhead.getIssued();
+                readAheadTotals[1] += segment.readAhead.getUsed();
+                readAheadTotals[2] += segment.readAhead.getUnused();
+                readAheadTotals[3] = Math.max(readAheadTotals[3],
+                    segment.readAhead.getDepth());
+            }
+        }
+        if (purgeTimer != null) {
+            purgeTimer.recordSince(purgeStart);
+        }
+        if (purgeEvent.shouldCommit()) {
+            purgeEvent.dirtyFrames = dirtyFrames;
+            purgeEvent.writeCalls = calls;
+            purgeEvent.commit();
+        }
+        Quicksort.recordDetail("Write calls", String.valueOf(calls));
+        if (trace != null) {
+            trace.close();
+            Quicksort.recordDetail("Traced lookups", String.valueOf(trace
+                .getLookups()));
+        }
+        if (sizeLog != null) {
+            Quicksort.recordDetail("Pool resizes", String.valueOf(sizeChanges
+                - 1));
+            Quicksort.recordDetail("Pool size", sizeLog.toString());
+        }
+        if (segments[0].writeBack != null) {
+            Quicksort.recordDetail("Inline writes", String.valueOf(
+                inlineWrites));
+            Quicksort.recordDetail("Background writes", String.valueOf(
+                backgroundWrites));
+        }
+        if (segments[0].readAhead != null) {
+            Quicksort.recordDetail("Prefetched", String.valueOf(
+                readAheadTotals[0]));
+            Quicksort.recordDetail("Prefetch used", String.valueOf(
+                readAheadTotals[1]));
+            Quicksort.recordDetail("Prefetch unused", String.valueOf(
+                readAheadTotals[2]));
+            Quicksort.recordDetail("Read-ahead depth", String.valueOf(
+                readAheadTotals[3]));
         }
     }
 
 
     /**
-     * Finds a block in the cache
+     * Closes the disk file and stops the background I/O thread. Call purge
+     * first; the pool cannot be used afterwards.
      *
-     * @param position
-     *            where to look for the block
-     * @return buffer of the block
      * @throws IOException
-     *             if error in seeking block
+     *             if error in closing the file
      */
-    private Buffer seekBlock(int position) throws IOException {
-        int blockIdx = position / BLOCK_SIZE;
-        DualNode<Buffer> node = cacheMap.fetch(blockIdx);
-        if (node != null) {
-            Quicksort.incrementSuccessfulRetrievals();
-            cacheSequence.elevate(node);
+    public void close() throws IOException {
+        synchronized (this) {
+            if (ioWorker != null) {
+                ioWorker.shutdown();
+            }
         }
-        else {
-            Quicksort.incrementRetrievalAttempts();
-            node = fetchLastAndResync(blockIdx);
+        fileAccessor.close();
+    }
+
+
+    /**
+     * Writes every dirty frame of every segment in block order, with one
+     * gathering write per run of consecutive blocks. The caller holds all
+     * segments.
+     *
+     * @throws IOException
+     *             if error in writing the file
+     */
+    private void syncAll() throws IOException {
+        int dirtyTotal = 0;
+        for (Segment segment : segments) {
+            dirtyTotal += segment.dirtyCount;
+        }
+        Buffer[] dirty = new Buffer[dirtyTotal];
+        int found = 0;
+        for (Segment segment : segments) {
+            for (int i = 0; i < segment.framesInUse; i++) {
+                if (segment.frames[i].dirty) {
+                    dirty[found++] = segment.frames[i];
+                }
+            }
         }
-        return node.getElementData();
+        Arrays.sort(dirty, 0, found, BY_BLOCK);
+        Buffer[] run = new Buffer[MAX_GATHER];
+        int runLength = 0;
+        for (int i = 0; i < found; i++) {
+            Buffer block = dirty[i];
+            if (runLength == MAX_GATHER || (runLength > 0
+                && run[runLength - 1].blockIndex + 1 != block.blockIndex)) {
+                writeRun(run, runLength);
+                runLength = 0;
+            }
+            run[runLength++] = block;
+        }
+        writeRun(run, runLength);
     }
 
 
     /**
-     * Handles cache block synchronization and updating
-     * 
+     * Writes frames holding consecutive blocks with gathering writes and
+     * marks them clean
+     *
+     * @param run
+     *            the frames, in block order
+     * @param count
+     *            how many frames to write
+     * @throws IOException
+     *             if error in writing the file
+     */
+    private void writeRun(Buffer[] run, int count) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        ByteBuffer[] data = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            data[i] = run[i].blockData;
+        }
+        writeCalls.add(WriteBack.writeGathered(fileAccessor.getChannel(),
+            data, count, (long)run[0].blockIndex * BLOCK_SIZE));
+        for (int i = 0; i < count; i++) {
+            run[i].setDirty(false);
+            run[i].owner.inlineWrites++;
+            Quicksort.incrementStorageOperations();
+        }
+    }
+
+
+    /**
+     * Finds the segment a block belongs to
+     *
      * @param blockIdx
      *            the index of the block
-     * @return node the buffer is at
-     * @throws IOException
-     *             if error in fetching and syncing
+     * @return the block's segment
      */
-    private DualNode<Buffer> fetchLastAndResync(int blockIdx)
-        throws IOException {
-        DualNode<Buffer> node = cacheSequence.fetchTail();
-        cacheMap.delete(node.getElementData().blockIndex);
-        node.getElementData().sync();
-        node.getElementData().updateBlockIndexAndPosition(blockIdx);
-        node.getElementData().load();
-        cacheMap.add(blockIdx, node);
-        cacheSequence.elevate(node);
-        return node;
+    private Segment segmentFor(int blockIdx) {
+        if (segments.length == 1) {
+            return segments[0];
+        }
+        return segments[(blockIdx / STRIPE_BLOCKS) % segments.length];
+    }
+
+    /**
+     * Handle onto a pinned frame. Records are read and written straight in
+     * the frame; after writing, the pool's markDirty must be called before
+     * unpin. The handle is dead once unpinned.
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    public class PinnedBlock {
+        private Buffer frame;
+        private int blockIndex;
+
+        /**
+         * Constructor for the PinnedBlock class
+         *
+         * @param frame
+         *            the pinned frame
+         */
+        private PinnedBlock(Buffer frame) {
+            this.frame = frame;
+            this.blockIndex = frame.blockIndex;
+        }
+
+
+        /**
+         * Gets the index of the pinned block
+         *
+         * @return the block index
+         */
+        public int getBlockIndex() {
+            return blockIndex;
+        }
+
+
+        /**
+         * Reads a record of the block
+         *
+         * @param slot
+         *            the record's position within the block
+         * @return the record as a big-endian int
+         */
+        public int readRecord(int slot) {
+            return checkPinned().blockData.getInt(slot * RECORD_SIZE);
+        }
+
+
+        /**
+         * Writes a record of the block. The block is not marked dirty.
+         *
+         * @param slot
+         *            the record's position within the block
+         * @param value
+         *            the record as a big-endian int
+         */
+        public void writeRecord(int slot, int value) {
+            checkPinned().blockData.putInt(slot * RECORD_SIZE, value);
+        }
+
+
+        /**
+         * Gets the frame, failing if the handle was released
+         *
+         * @return the pinned frame
+         */
+        private Buffer checkPinned() {
+            if (frame == null) {
+                throw new IllegalStateException("Block " + blockIndex
+                    + " is no longer pinned by this handle");
+            }
+            return frame;
+        }
+    }
+
+    /**
+     * One share of the pool's frames with its own page table, policy,
+     * read-ahead and write-back. Every method expects the caller to hold
+     * the segment through enter and exit.
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private class Segment {
+        private ReentrantLock lock;
+        private PageTable cacheMap;
+        private Buffer[] frames;
+        private int framesInUse;
+        private int resident;
+        private int[] freeFrames;
+        private int freeCount;
+        private PoolSizer sizer;
+        private long epochStart;
+        private EvictionPolicy policy;
+        private ReadAhead readAhead;
+        private WriteBack writeBack;
+        private long[] lastUse;
+        private long useClock;
+        private int dirtyCount;
+        private FrameList dirtyFrames;
+        private int cleanDeferred;
+        private int dirtyHighMark;
+        private int dirtyLowMark;
+        private double dirtyHigh;
+        private double dirtyLow;
+        private int inlineWrites;
+
+        /**
+         * Constructor for the Segment class
+         *
+         * @param frames
+         *            the frames of this segment, all null for an adaptive
+         *            segment
+         * @param sizer
+         *            picks the size of an adaptive segment, null for a
+         *            fixed one
+         * @param options
+         *            the command line options
+         */
+        Segment(Buffer[] frames, PoolSizer sizer, RunOptions options) {
+            this.frames = frames;
+            this.sizer = sizer;
+            lock = new ReentrantLock();
+            cacheMap = new PageTable(frames.length);
+            lastUse = new long[frames.length];
+            freeFrames = new int[frames.length];
+            for (int i = 0; i < frames.length; i++) {
+                if (frames[i] != null) {
+                    frames[i].owner = this;
+                    frames[i].frameIndex = i;
+                }
+            }
+            policy = EvictionPolicy.forName(options.getString("policy",
+                "lru"), frames.length);
+            int readAheadDepth = options.getInt("readahead", 0);
+            if (readAheadDepth > 0) {
+                readAhead = new ReadAhead(fileAccessor.getChannel(),
+                    getIoWorker(), b -> cacheMap.get(b) != PageTable.ABSENT,
+                    totalBlocks, STRIPE_BLOCKS, segments.length,
+                    readAheadDepth);
+            }
+            dirtyHigh = options.getDouble("dirtyhigh", 0);
+            if (dirtyHigh > 0) {
+                dirtyLow = options.getDouble("dirtylow", dirtyHigh / 2);
+                setDirtyMarks();
+                dirtyFrames = new FrameList(frames.length);
+                writeBack = new WriteBack(fileAccessor.getChannel(),
+                    getIoWorker());
+            }
+        }
+
+
+        /**
+         * Gets how many frames the segment should hold
+         *
+         * @return the target size
+         */
+        int targetFrames() {
+            return sizer == null ? frames.length : sizer.getTarget();
+        }
+
+
+        /**
+         * Sets the dirty watermarks from the current size. The high mark is
+         * at least MIN_DIRTY_FRAMES, or the whole segment when it is
+         * smaller, and the low mark at least half that, so a small segment
+         * does not write back after every write.
+         */
+        private void setDirtyMarks() {
+            int target = targetFrames();
+            dirtyHighMark = Math.max(Math.min(target, MIN_DIRTY_FRAMES),
+                (int)(target * dirtyHigh));
+            dirtyLowMark = Math.min(dirtyHighMark - 1, Math.max(Math.min(
+                target, MIN_DIRTY_FRAMES) / 2, (int)(target * dirtyLow)));
+        }
+
+
+        /**
+         * Counts a frame that became dirty or clean, and keeps the dirty
+         * frames in order of last use when there is write-back
+         *
+         * @param block
+         *            the frame
+         * @param dirty
+         *            true if the frame became dirty
+         */
+        void recordDirty(Buffer block, boolean dirty) {
+            dirtyCount += dirty ? 1 : -1;
+            if (dirtyFrames != null) {
+                if (dirty) {
+                    dirtyFrames.prependNode(block.frameIndex);
+                }
+                else {
+                    dirtyFrames.deleteNode(block.frameIndex);
+                }
+                cleanDeferred = 0;
+            }
+        }
+
+
+        /**
+         * Takes the segment's lock when the pool is shared between threads
+         */
+        void enter() {
+            if (concurrent) {
+                lock.lock();
+            }
+        }
+
+
+        /**
+         * Releases the segment's lock
+         */
+        void exit() {
+            if (concurrent) {
+                lock.unlock();
+            }
+        }
+
+
+        /**
+         * Waits for background writes and stops read-ahead, ahead of the
+         * pool writing the dirty frames
+         *
+         * @throws IOException
+         *             if a background write failed
+         */
+        void purge() throws IOException {
+            if (writeBack != null) {
+                writeBack.drain();
+            }
+            if (readAhead != null) {
+                readAhead.finish();
+            }
+        }
+
+
+        /**
+         * Finds a block in the cache
+         *
+         * @param position
+         *            where to look for the block
+         * @param write
+         *            true if the block is looked up to be written, for the
+         *            trace
+         * @return buffer of the block
+         * @throws IOException
+         *             if error in seeking block
+         */
+        Buffer seekBlock(long position, boolean write) throws IOException {
+            long seekStart = seekTimer != null ? System.nanoTime() : 0;
+            int blockIdx = (int)(position / BLOCK_SIZE);
+            if (trace != null) {
+                trace.record(blockIdx, write);
+            }
+            int frame = cacheMap.get(blockIdx);
+            if (sizer != null && sizer.recordLookup(blockIdx,
+                frame != PageTable.ABSENT)) {
+                adjustSize();
+                frame = cacheMap.get(blockIdx);
+            }
+            Buffer block;
+            if (frame != PageTable.ABSENT) {
+                Quicksort.incrementSuccessfulRetrievals();
+                block = frames[frame];
+                if (block.pins == 0) {
+                    policy.recordHit(frame);
+                }
+            }
+            else {
+                Quicksort.incrementRetrievalAttempts();
+                block = fetchLastAndResync(blockIdx);
+            }
+            lastUse[block.frameIndex] = ++useClock;
+            if (dirtyFrames != null && block.dirty) {
+                dirtyFrames.elevate(block.frameIndex);
+            }
+            if (seekTimer != null) {
+                seekTimer.recordSince(seekStart);
+            }
+            return block;
+        }
+
+
+        /**
+         * Marks a buffer dirty after a write and starts background
+         * write-back when too many frames are dirty. After a scan that
+         * found nothing to write, the next scan waits until the dirty
+         * frames change or a segment's worth of writes has passed.
+         *
+         * @param block
+         *            the buffer that was written
+         * @throws IOException
+         *             if an earlier background write failed
+         */
+        void markWritten(Buffer block) throws IOException {
+            block.setDirty(true);
+            if (writeBack != null && dirtyCount > dirtyHighMark) {
+                if (cleanDeferred > 0) {
+                    cleanDeferred--;
+                }
+                else {
+                    cleanAhead();
+                }
+            }
+        }
+
+
+        /**
+         * Hands the least recently used unpinned dirty frames to the
+         * background writer until only the low watermark of frames is still
+         * dirty. Only the less recently used half of the dirty frames is
+         * looked at; the rest are likely to be written again soon. The
+         * chosen frames are handed over in block order, consecutive blocks
+         * together.
+         *
+         * @throws IOException
+         *             if an earlier background write failed
+         */
+        private void cleanAhead() throws IOException {
+            int olderHalf = dirtyCount / 2;
+            Buffer[] chosen = new Buffer[Math.min(olderHalf, dirtyCount
+                - dirtyLowMark)];
+            int count = 0;
+            int frame = dirtyFrames.fetchTail();
+            for (int i = 0; i < olderHalf && count < chosen.length; i++) {
+                if (frames[frame].pins == 0) {
+                    chosen[count++] = frames[frame];
+                }
+                frame = dirtyFrames.fetchPrevious(frame);
+            }
+            if (count == 0) {
+                cleanDeferred = targetFrames();
+                return;
+            }
+            Arrays.sort(chosen, 0, count, BY_BLOCK);
+            ByteBuffer[] run = new ByteBuffer[Math.min(count, MAX_GATHER)];
+            int runLength = 0;
+            int runStart = 0;
+            for (int i = 0; i < count; i++) {
+                Buffer block = chosen[i];
+                if (runLength == run.length || (runLength > 0
+                    && runStart + runLength != block.blockIndex)) {
+                    writeBack.submitRun(runStart, run, runLength);
+                    runLength = 0;
+                }
+                if (runLength == 0) {
+                    runStart = block.blockIndex;
+                }
+                run[runLength++] = block.blockData;
+                block.setDirty(false);
+                Quicksort.incrementStorageOperations();
+            }
+            if (runLength > 0) {
+                writeBack.submitRun(runStart, run, runLength);
+            }
+        }
+
+
+        /**
+         * Writes a dirty victim before its frame is reused. Dirty unpinned
+         * frames holding the neighbouring blocks go out in the same
+         * gathering write when they were last used nearer the victim's last
+         * use than now, as happens behind a sequential sweep, since they
+         * are likely the next victims.
+         *
+         * @param victim
+         *            the frame about to be reused
+         * @throws IOException
+         *             if error in writing the file
+         */
+        private void syncVictim(Buffer victim) throws IOException {
+            if (!victim.dirty) {
+                return;
+            }
+            long cutoff = (lastUse[victim.frameIndex] + useClock) / 2;
+            int first = victim.blockIndex;
+            int last = first;
+            while (last - first + 1 < MAX_GATHER && cleanable(last + 1,
+                cutoff)) {
+                last++;
+            }
+            while (last - first + 1 < MAX_GATHER && cleanable(first - 1,
+                cutoff)) {
+                first--;
+            }
+            Buffer[] run = new Buffer[last - first + 1];
+            for (int b = first; b <= last; b++) {
+                run[b - first] = frames[cacheMap.get(b)];
+                if (writeBack != null) {
+                    writeBack.await(b);
+                }
+            }
+            writeRun(run, run.length);
+        }
+
+
+        /**
+         * Indicates if a block can go out with a victim's write
+         *
+         * @param blockIdx
+         *            the neighbouring block
+         * @param cutoff
+         *            the latest last use allowed
+         * @return true if the block is dirty, unpinned and idle here
+         */
+        private boolean cleanable(int blockIdx, long cutoff) {
+            if (blockIdx < 0 || blockIdx >= totalBlocks || segmentFor(
+                blockIdx) != this) {
+                return false;
+            }
+            int frame = cacheMap.get(blockIdx);
+            return frame != PageTable.ABSENT && frames[frame].dirty
+                && frames[frame].pins == 0 && lastUse[frame] <= cutoff;
+        }
+
+
+        /**
+         * Ends a sizing epoch: counts the frames nobody used during it,
+         * lets the sizer pick the new size and evicts down to it
+         *
+         * @throws IOException
+         *             if error in writing an evicted frame
+         */
+        private void adjustSize() throws IOException {
+            int idle = 0;
+            for (int i = 0; i < framesInUse; i++) {
+                if (frames[i].blockIndex >= 0 && frames[i].pins == 0
+                    && lastUse[i] < epochStart) {
+                    idle++;
+                }
+            }
+            int before = sizer.getTarget();
+            int target = sizer.resize(idle);
+            epochStart = useClock;
+            while (resident > target) {
+                int victim = policy.selectVictim(-1);
+                if (victim < 0) {
+                    break;
+                }
+                releaseFrame(frames[victim]);
+            }
+            if (target != before) {
+                setDirtyMarks();
+                logPoolSize();
+            }
+        }
+
+
+        /**
+         * Writes back an evicted frame and frees its memory
+         *
+         * @param block
+         *            the frame, already dropped by the policy
+         * @throws IOException
+         *             if error in writing the frame
+         */
+        private void releaseFrame(Buffer block) throws IOException {
+            syncVictim(block);
+            sizer.recordEviction(block.blockIndex);
+            cacheMap.remove(block.blockIndex);
+            block.updateBlockIndexAndPosition(-1);
+            block.blockData = null;
+            freeFrames[freeCount++] = block.frameIndex;
+            resident--;
+        }
+
+
+        /**
+         * Gets an empty frame, reusing a freed one first and creating the
+         * frame of an adaptive segment the first time it is used
+         *
+         * @return the empty frame
+         */
+        private Buffer takeFrame() {
+            Buffer block;
+            if (freeCount > 0) {
+                block = frames[freeFrames[--freeCount]];
+            }
+            else {
+                if (frames[framesInUse] == null) {
+                    frames[framesInUse] = new Buffer(fileAccessor.getChannel(),
+                        null);
+                    frames[framesInUse].owner = this;
+                    frames[framesInUse].frameIndex = framesInUse;
+                }
+                block = frames[framesInUse++];
+            }
+            if (block.blockData == null) {
+                block.blockData = ByteBuffer.allocateDirect(BLOCK_SIZE);
+            }
+            resident++;
+            return block;
+        }
+
+
+        /**
+         * Handles cache block synchronization and updating. Unused frames
+         * are filled first, after that the policy picks the victim.
+         * 
+         * @param blockIdx
+         *            the index of the block
+         * @return the buffer now holding the block
+         * @throws IOException
+         *             if error in fetching and syncing
+         */
+        private Buffer fetchLastAndResync(int blockIdx) throws IOException {
+            Buffer block;
+            int victim = resident < targetFrames()
+                ? -1
+                : policy.selectVictim(blockIdx);
+            if (victim >= 0) {
+                block = frames[victim];
+                BlockEvictionEvent eviction = new BlockEvictionEvent();
+                eviction.begin();
+                boolean wasDirty = block.dirty;
+                syncVictim(block);
+                if (eviction.shouldCommit()) {
+                    eviction.victimBlock = block.blockIndex;
+                    eviction.incomingBlock = blockIdx;
+                    eviction.dirty = wasDirty;
+                    eviction.policy = policy.getName();
+                    eviction.commit();
+                }
+                if (sizer != null) {
+                    sizer.recordEviction(block.blockIndex);
+                }
+            }
+            else if (resident < frames.length) {
+                block = takeFrame();
+            }
+            else {
+                throw new IllegalStateException("Cannot load block "
+                    + blockIdx + ": all " + frames.length
+                    + " frames of its segment are pinned");
+            }
+            cacheMap.replace(block.blockIndex, blockIdx, block.frameIndex);
+            block.updateBlockIndexAndPosition(blockIdx);
+            if (writeBack != null) {
+                writeBack.await(blockIdx);
+            }
+            BlockLoadEvent load = new BlockLoadEvent();
+            load.begin();
+            boolean prefetched = readAhead != null && readAhead.fill(
+                blockIdx, block.blockData);
+            if (!prefetched) {
+                block.load();
+            }
+            if (load.shouldCommit()) {
+                load.blockIndex = blockIdx;
+                load.frameIndex = block.frameIndex;
+                load.prefetched = prefetched;
+                load.commit();
+            }
+            policy.recordInsert(block.frameIndex, blockIdx);
+            if (readAhead != null) {
+                readAhead.observeMiss(blockIdx);
+            }
+            return block;
+        }
     }
 
     /**
@@ -171,25 +1447,28 @@ public class BufferPool {
      *
      */
     private class Buffer {
+        private Segment owner;
+        private int frameIndex;
         private int blockIndex;
-        private byte[] blockData;
-        private RandomAccessFile fileStream;
-        private int filePosition;
+        private ByteBuffer blockData;
+        private FileChannel fileStream;
+        private long filePosition;
         private boolean dirty;
+        private int pins;
 
         /**
          * Constructor for the Buffer class
          * 
          * @param fileStream
          *            the disk file
-         * @param blockIndex
-         *            index within the pool
+         * @param blockData
+         *            the off-heap frame holding the block
          */
-        public Buffer(RandomAccessFile fileStream, int blockIndex) {
-            this.blockIndex = blockIndex;
+        public Buffer(FileChannel fileStream, ByteBuffer blockData) {
+            this.blockIndex = -1;
             this.fileStream = fileStream;
-            this.filePosition = blockIndex * BLOCK_SIZE;
-            blockData = new byte[BLOCK_SIZE];
+            this.filePosition = -1;
+            this.blockData = blockData;
             this.dirty = false;
         }
 
@@ -200,23 +1479,10 @@ public class BufferPool {
          * @param dirty
          */
         public void setDirty(boolean dirty) {
-            this.dirty = dirty;
-        }
-
-
-        /**
-         * Syncs the data in the buffer
-         * 
-         * @throws IOException
-         *             if error in syncing data
-         */
-        public void sync() throws IOException {
-            if (dirty) {
-                fileStream.seek(filePosition);
-                fileStream.write(blockData);
-                dirty = false;
-                Quicksort.incrementStorageOperations();
+            if (dirty != this.dirty) {
+                owner.recordDirty(this, dirty);
             }
+            this.dirty = dirty;
         }
 
 
@@ -227,8 +1493,16 @@ public class BufferPool {
          *             if error in loading the data
          */
         public void load() throws IOException {
-            fileStream.seek(filePosition);
-            fileStream.read(blockData);
+            long loadStart = loadTimer != null ? System.nanoTime() : 0;
+            blockData.clear();
+            while (blockData.hasRemaining() && fileStream.read(blockData,
+                filePosition + blockData.position()) >= 0) {
+                // Keep reading until the frame is full or the file ends.
+            }
+            bytesRead.add(blockData.position());
+            if (loadTimer != null) {
+                loadTimer.recordSince(loadStart);
+            }
         }
 
 
@@ -240,7 +1514,7 @@ public class BufferPool {
          */
         private void updateBlockIndexAndPosition(int blockIdx) {
             this.blockIndex = blockIdx;
-            this.filePosition = blockIdx * BLOCK_SIZE;
+            this.filePosition = (long)blockIdx * BLOCK_SIZE;
         }
     }
 }
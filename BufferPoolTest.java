@@ -0,0 +1,228 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import junit.framework.TestCase;
+
+/**
+ * Tests the BufferPool on a small file of zeroed blocks
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class BufferPoolTest extends TestCase {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int BLOCKS = 40;
+    private File data;
+    private BufferPool pool;
+
+    /**
+     * Creates the file
+     *
+     * @throws IOException
+     *             if error in creating the file
+     */
+    public void setUp() throws IOException {
+        data = File.createTempFile("pool", ".bin");
+        try (RandomAccessFile file = new RandomAccessFile(data, "rw")) {
+            file.setLength((long)BLOCKS * BLOCK_SIZE);
+        }
+    }
+
+
+    /**
+     * Closes the pool and deletes the file
+     *
+     * @throws IOException
+     *             if error in closing the pool
+     */
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.close();
+        }
+        data.delete();
+    }
+
+
+    /**
+     * Checks that an adaptive pool reports its current size, not its
+     * ceiling
+     *
+     * @throws IOException
+     *             if error in opening the pool
+     */
+    public void testResidentCapacityUsesCurrentSize() throws IOException {
+        pool = open("4", "-poolbytes=" + 64 * BLOCK_SIZE);
+        assertEquals(64, pool.getCapacity());
+        assertEquals(4, pool.getResidentCapacity());
+    }
+
+
+    /**
+     * Checks that the default stripes leave each segment at least 16
+     * frames, so a small pool is not split into segments that thrash
+     *
+     * @throws IOException
+     *             if error in opening the pool
+     */
+    public void testDefaultStripesKeepSegmentsLarge() throws IOException {
+        pool = open("40", "-threads=4");
+        assertEquals(40, pool.getResidentCapacity());
+        pool.close();
+        pool = open("8", "-threads=4");
+        assertEquals(8, pool.getResidentCapacity());
+        pool.close();
+        pool = open("40", "-threads=4", "-stripes=16");
+        assertEquals(32, pool.getResidentCapacity());
+    }
+
+
+    /**
+     * Checks that the smallest segment bounds the resident capacity
+     *
+     * @throws IOException
+     *             if error in opening the pool
+     */
+    public void testResidentCapacityPerSegment() throws IOException {
+        pool = open("8", "-threads=2", "-stripes=3");
+        assertEquals(6, pool.getResidentCapacity());
+        pool.close();
+        pool = open("8", "-threads=2", "-stripes=2");
+        assertEquals(8, pool.getResidentCapacity());
+    }
+
+
+    /**
+     * Checks that a write through a pinned block reaches the file once it
+     * is marked dirty and the pool is purged
+     *
+     * @throws IOException
+     *             if error in using the pool
+     */
+    public void testPinWriteAndPurge() throws IOException {
+        pool = open("4");
+        BufferPool.PinnedBlock handle = pool.pin(3);
+        assertEquals(3, handle.getBlockIndex());
+        assertEquals(0, handle.readRecord(5));
+        handle.writeRecord(5, 0x12345678);
+        pool.markDirty(handle);
+        pool.unpin(handle);
+        assertEquals(0x12345678, pool.readRecord(3 * 1024 + 5));
+        pool.purge();
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(data.toPath()));
+        assertEquals(0x12345678, file.getInt(3 * BLOCK_SIZE + 5 * 4));
+    }
+
+
+    /**
+     * Checks that pinned frames are not evicted, and that a pin fails
+     * when every frame is pinned
+     *
+     * @throws IOException
+     *             if error in using the pool
+     */
+    public void testPinnedFramesStayResident() throws IOException {
+        pool = open("2");
+        BufferPool.PinnedBlock first = pool.pin(0);
+        BufferPool.PinnedBlock second = pool.pin(1);
+        try {
+            pool.pin(2);
+            fail("pinned every frame and loaded another block");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("pinned"));
+        }
+        pool.unpin(first);
+        BufferPool.PinnedBlock third = pool.pin(2);
+        second.writeRecord(0, 7);
+        assertEquals(7, second.readRecord(0));
+        BufferPool.PinnedBlock again = pool.pin(1);
+        assertEquals(7, again.readRecord(0));
+        pool.unpin(again);
+        pool.unpin(second);
+        pool.unpin(third);
+    }
+
+
+    /**
+     * Checks that a handle cannot be used once it is unpinned
+     *
+     * @throws IOException
+     *             if error in using the pool
+     */
+    public void testHandleDiesOnUnpin() throws IOException {
+        pool = open("2");
+        BufferPool.PinnedBlock handle = pool.pin(0);
+        pool.unpin(handle);
+        try {
+            pool.unpin(handle);
+            fail("unpinned a handle twice");
+        }
+        catch (IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            handle.readRecord(0);
+            fail("read through an unpinned handle");
+        }
+        catch (IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+
+    /**
+     * Checks that the mmap backend refuses pins
+     *
+     * @throws IOException
+     *             if error in opening the pool
+     */
+    public void testPinWithMmapFails() throws IOException {
+        pool = open("2", "-backend=mmap");
+        try {
+            pool.pin(0);
+            fail("pinned a block with the mmap backend");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("mmap"));
+        }
+        assertFalse(pool.canPin(1));
+    }
+
+
+    /**
+     * Checks that canPin leaves every segment a frame to spare
+     *
+     * @throws IOException
+     *             if error in opening the pool
+     */
+    public void testCanPin() throws IOException {
+        pool = open("8", "-threads=2", "-stripes=2");
+        assertTrue(pool.canPin(3));
+        assertFalse(pool.canPin(4));
+    }
+
+
+    /**
+     * Opens a pool on the file
+     *
+     * @param buffers
+     *            the number of buffers
+     * @param options
+     *            the options after the buffer count
+     * @return the pool
+     * @throws IOException
+     *             if error in opening the pool
+     */
+    private BufferPool open(String buffers, String... options)
+        throws IOException {
+        String[] args = new String[options.length + 3];
+        args[0] = data.getPath();
+        args[1] = buffers;
+        args[2] = data.getPath() + ".stats";
+        System.arraycopy(options, 0, args, 3, options.length);
+        return new BufferPool(args);
+    }
+}
@@ -38,7 +38,7 @@ public class CheckFile
         // Prime with the first record
         short key2 = in.readShort();
         in.readShort();
-        int reccnt = 0;
+        long reccnt = 0;
         try
         {
             while (true)
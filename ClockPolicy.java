@@ -0,0 +1,88 @@
+/**
+ * CLOCK (second chance) eviction. Each frame has a reference bit that is
+ * set on a hit. The hand sweeps the frames, clearing set bits, and evicts
+ * the first tracked frame whose bit is already clear.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class ClockPolicy implements EvictionPolicy {
+    private boolean[] tracked;
+    private boolean[] referenced;
+    private int trackedCount;
+    private int hand;
+
+    /**
+     * Constructor for the ClockPolicy class
+     *
+     * @param capacity
+     *            the number of frames in the pool
+     */
+    public ClockPolicy(int capacity) {
+        tracked = new boolean[capacity];
+        referenced = new boolean[capacity];
+    }
+
+
+    @Override
+    public String getName() {
+        return "clock";
+    }
+
+
+    @Override
+    public void recordHit(int frame) {
+        referenced[frame] = true;
+    }
+
+
+    @Override
+    public void recordInsert(int frame, int blockIndex) {
+        tracked[frame] = true;
+        referenced[frame] = false;
+        trackedCount++;
+    }
+
+
+    @Override
+    public void recordPin(int frame) {
+        remove(frame);
+    }
+
+
+    @Override
+    public void recordUnpin(int frame, int blockIndex) {
+        tracked[frame] = true;
+        referenced[frame] = true;
+        trackedCount++;
+    }
+
+
+    @Override
+    public int selectVictim(int incomingBlock) {
+        if (trackedCount == 0) {
+            return -1;
+        }
+        while (true) {
+            int frame = hand;
+            hand = (hand + 1) % tracked.length;
+            if (tracked[frame]) {
+                if (!referenced[frame]) {
+                    remove(frame);
+                    return frame;
+                }
+                referenced[frame] = false;
+            }
+        }
+    }
+
+
+    @Override
+    public void remove(int frame) {
+        if (tracked[frame]) {
+            tracked[frame] = false;
+            trackedCount--;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Decides which frame of the BufferPool gives up its block on a miss.
+ * Frames are numbered 0 to capacity - 1. A frame is tracked by the policy
+ * from the time a block is inserted into it until it is chosen as a victim
+ * or removed. A pinned frame stays tracked but is not offered as a victim
+ * until it is unpinned.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Gets the name of the policy, as given on the command line
+     *
+     * @return the policy name
+     */
+    String getName();
+
+
+    /**
+     * Records a hit on a tracked frame
+     *
+     * @param frame
+     *            the frame that was hit
+     */
+    void recordHit(int frame);
+
+
+    /**
+     * Starts tracking a frame that was just loaded with a block
+     *
+     * @param frame
+     *            the frame that was loaded
+     * @param blockIndex
+     *            the block now held by the frame
+     */
+    void recordInsert(int frame, int blockIndex);
+
+
+    /**
+     * Stops offering a tracked frame as a victim while it is pinned. What
+     * the policy knows about the frame, such as its list or its history, is
+     * kept.
+     *
+     * @param frame
+     *            the frame that was pinned
+     */
+    void recordPin(int frame);
+
+
+    /**
+     * Offers a pinned frame as a victim again, in the same list or with the
+     * same history it had when it was pinned. The pin counts as the frame's
+     * most recent reference.
+     *
+     * @param frame
+     *            the frame whose last pin was released
+     * @param blockIndex
+     *            the block held by the frame
+     */
+    void recordUnpin(int frame, int blockIndex);
+
+
+    /**
+     * Chooses a victim for an incoming block and stops tracking it
+     *
+     * @param incomingBlock
+     *            the block that missed
+     * @return the victim frame, or -1 if no frame is tracked
+     */
+    int selectVictim(int incomingBlock);
+
+
+    /**
+     * Stops tracking a frame without treating it as evicted
+     *
+     * @param frame
+     *            the frame to remove
+     */
+    void remove(int frame);
+
+
+    /**
+     * Creates a policy from its command line name
+     *
+     * @param name
+     *            one of lru, clock, 2q, arc or lruk
+     * @param capacity
+     *            the number of frames in the pool
+     * @return the policy
+     */
+    static EvictionPolicy forName(String name, int capacity) {
+        switch (name) {
+            case "lru":
+                return new LruPolicy(capacity);
+            case "clock":
+                return new ClockPolicy(capacity);
+            case "2q":
+                return new TwoQueuePolicy(capacity);
+            case "arc":
+                return new ArcPolicy(capacity);
+            case "lruk":
+                return new LruKPolicy(capacity, 2);
+            default:
+                throw new IllegalArgumentException("Unknown policy: "
+                    + name);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests the eviction policies through the EvictionPolicy interface
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class EvictionPolicyTest extends TestCase {
+    private static final String[] NAMES = { "lru", "clock", "2q", "arc",
+        "lruk" };
+
+    /**
+     * Drives every policy with random inserts, hits and evictions, and
+     * checks that each victim is a frame the policy was tracking
+     */
+    public void testVictimsAreTrackedFrames() {
+        Random random = new Random(3114);
+        for (String name : NAMES) {
+            int capacity = 16;
+            EvictionPolicy policy = EvictionPolicy.forName(name, capacity);
+            assertEquals(name, policy.getName());
+            boolean[] tracked = new boolean[capacity];
+            int used = 0;
+            for (int i = 0; i < 20000; i++) {
+                int frame = random.nextInt(capacity);
+                if (tracked[frame] && random.nextBoolean()) {
+                    policy.recordHit(frame);
+                    continue;
+                }
+                if (used == capacity) {
+                    frame = policy.selectVictim(random.nextInt(64));
+                    assertTrue(name, frame >= 0 && tracked[frame]);
+                    tracked[frame] = false;
+                    used--;
+                }
+                else {
+                    while (tracked[frame]) {
+                        frame = (frame + 1) % capacity;
+                    }
+                }
+                policy.recordInsert(frame, random.nextInt(64));
+                tracked[frame] = true;
+                used++;
+            }
+        }
+    }
+
+
+    /**
+     * Checks that LRU evicts the least recently used frame
+     */
+    public void testLruOrder() {
+        EvictionPolicy policy = new LruPolicy(3);
+        policy.recordInsert(0, 10);
+        policy.recordInsert(1, 11);
+        policy.recordInsert(2, 12);
+        policy.recordHit(0);
+        assertEquals(1, policy.selectVictim(13));
+        assertEquals(2, policy.selectVictim(14));
+        policy.remove(0);
+        assertEquals(-1, policy.selectVictim(15));
+    }
+
+
+    /**
+     * Checks that a pinned frame is never chosen as a victim and that an
+     * unpinned one is
+     */
+    public void testPinnedFramesAreSkipped() {
+        for (String name : NAMES) {
+            EvictionPolicy policy = EvictionPolicy.forName(name, 4);
+            for (int frame = 0; frame < 4; frame++) {
+                policy.recordInsert(frame, 100 + frame);
+            }
+            for (int frame = 0; frame < 4; frame++) {
+                policy.recordPin(frame);
+            }
+            assertEquals(name, -1, policy.selectVictim(200));
+            policy.recordUnpin(2, 102);
+            assertEquals(name, 2, policy.selectVictim(200));
+            assertEquals(name, -1, policy.selectVictim(201));
+        }
+    }
+
+
+    /**
+     * Checks that CLOCK keeps a frame's reference bit across a pin
+     */
+    public void testClockKeepsReferenceBit() {
+        EvictionPolicy policy = new ClockPolicy(2);
+        policy.recordInsert(0, 10);
+        policy.recordInsert(1, 11);
+        policy.recordHit(0);
+        policy.recordPin(0);
+        policy.recordUnpin(0, 10);
+        assertEquals(1, policy.selectVictim(12));
+    }
+
+
+    /**
+     * Checks that CLOCK counts an unpin as a reference
+     */
+    public void testClockUnpinIsAReference() {
+        EvictionPolicy policy = new ClockPolicy(2);
+        policy.recordInsert(0, 10);
+        policy.recordInsert(1, 11);
+        policy.recordPin(0);
+        policy.recordUnpin(0, 10);
+        assertEquals(1, policy.selectVictim(12));
+    }
+
+
+    /**
+     * Checks that 2Q puts a frame pinned in Am back in Am, not in A1in
+     */
+    public void testTwoQueueKeepsAm() {
+        EvictionPolicy policy = new TwoQueuePolicy(8);
+        for (int frame = 0; frame < 3; frame++) {
+            policy.recordInsert(frame, 10 + frame);
+        }
+        assertEquals(0, policy.selectVictim(13));
+        policy.recordInsert(0, 10);
+        policy.recordPin(0);
+        policy.recordUnpin(0, 10);
+        assertEquals(0, policy.selectVictim(14));
+    }
+
+
+    /**
+     * Checks that ARC puts a frame pinned in T2 back in T2, not in T1
+     */
+    public void testArcKeepsT2() {
+        EvictionPolicy policy = new ArcPolicy(4);
+        policy.recordInsert(0, 10);
+        policy.recordHit(0);
+        policy.recordInsert(1, 11);
+        policy.recordInsert(2, 12);
+        policy.recordPin(0);
+        policy.recordUnpin(0, 10);
+        policy.recordInsert(3, 13);
+        assertEquals(1, policy.selectVictim(14));
+        assertEquals(2, policy.selectVictim(15));
+        assertEquals(3, policy.selectVictim(16));
+        assertEquals(0, policy.selectVictim(17));
+    }
+
+
+    /**
+     * Checks that an LRU-K frame whose history moved after it was filed is
+     * not evicted ahead of frames with older histories
+     */
+    public void testLruKRefilesHitFrames() {
+        EvictionPolicy policy = new LruKPolicy(4, 2);
+        for (int frame = 0; frame < 4; frame++) {
+            policy.recordInsert(frame, 10 + frame);
+        }
+        policy.recordHit(0);
+        assertEquals(1, policy.selectVictim(20));
+        policy.recordInsert(1, 20);
+        assertEquals(2, policy.selectVictim(21));
+        assertEquals(3, policy.selectVictim(22));
+        assertEquals(1, policy.selectVictim(23));
+        assertEquals(0, policy.selectVictim(24));
+        assertEquals(-1, policy.selectVictim(25));
+    }
+
+
+    /**
+     * Checks that LRU-K keeps a frame's reference history across a pin
+     */
+    public void testLruKKeepsHistory() {
+        EvictionPolicy policy = new LruKPolicy(6, 2);
+        policy.recordInsert(1, 11);
+        policy.recordInsert(0, 10);
+        for (int frame = 2; frame < 5; frame++) {
+            policy.recordInsert(frame, 10 + frame);
+        }
+        policy.recordHit(1);
+        policy.recordHit(0);
+        policy.recordPin(0);
+        policy.recordUnpin(0, 10);
+        int[] expected = { 2, 3, 4, 1, 0 };
+        for (int victim : expected) {
+            assertEquals(victim, policy.selectVictim(20));
+        }
+    }
+
+
+    /**
+     * Checks that LRU-K counts an unpin as a reference, so a frame pinned
+     * once after its insert outlives frames referenced only once
+     */
+    public void testLruKUnpinIsAReference() {
+        EvictionPolicy policy = new LruKPolicy(8, 2);
+        for (int frame = 0; frame < 6; frame++) {
+            policy.recordInsert(frame, 10 + frame);
+        }
+        policy.recordPin(0);
+        policy.recordUnpin(0, 10);
+        int[] expected = { 1, 2, 3, 4, 5, 0 };
+        for (int victim : expected) {
+            assertEquals(victim, policy.selectVictim(20));
+        }
+    }
+}
@@ -0,0 +1,402 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * External merge sort for files many times larger than the buffer pool.
+ * The first pass reads the file in chunks of the memory budget, sorts each
+ * chunk in memory and writes it to a temporary run file. Later passes merge
+ * up to fan-in runs at a time through a LoserTree until one run is left,
+ * and the last merge writes straight back into the data file. Every read
+ * and write is sequential and block aligned.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class ExternalMergeSort {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int SIZE_OF_DATA = 4;
+    private String fileName;
+    private File tempDirectory;
+    private int budgetBlocks;
+    private int passes;
+    private int runCount;
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * Constructor for the ExternalMergeSort class
+     *
+     * @param fileName
+     *            the data file to sort
+     * @param budgetBlocks
+     *            the memory budget in blocks, at least 2
+     * @param tempDirectory
+     *            where the run files go
+     */
+    public ExternalMergeSort(
+        String fileName,
+        int budgetBlocks,
+        File tempDirectory) {
+        this.fileName = fileName;
+        this.budgetBlocks = Math.max(2, budgetBlocks);
+        this.tempDirectory = tempDirectory;
+    }
+
+
+    /**
+     * Sorts the file and records the pass and byte counts in the report
+     *
+     * @throws IOException
+     *             if error in reading or writing a file
+     */
+    public void sortFile() throws IOException {
+        try (RandomAccessFile data = new RandomAccessFile(fileName, "rw")) {
+            FileChannel channel = data.getChannel();
+            DoublyLinkedList<File> runs = formRuns(channel);
+            passes = 1;
+            while (runs.listSize() > 1) {
+                runs = mergePass(runs, channel);
+                passes++;
+            }
+        }
+        Quicksort.recordDetail("Runs", String.valueOf(runCount));
+        Quicksort.recordDetail("Passes", String.valueOf(passes));
+        MetricsRegistry.counter("bytes read").add(bytesRead);
+        MetricsRegistry.counter("bytes written").add(bytesWritten);
+        Quicksort.recordDetail("Bytes read", String.valueOf(bytesRead));
+        Quicksort.recordDetail("Bytes written", String.valueOf(
+            bytesWritten));
+    }
+
+
+    /**
+     * Reads the file one budget-sized chunk at a time, sorts each chunk and
+     * writes it out as a run. A file that fits in one chunk is written
+     * straight back and no run files are made.
+     *
+     * @param channel
+     *            the data file
+     * @return the run files, empty if the file was sorted in place
+     * @throws IOException
+     *             if error in reading or writing a file
+     */
+    private DoublyLinkedList<File> formRuns(FileChannel channel)
+        throws IOException {
+        DoublyLinkedList<File> runs = new DoublyLinkedList<>();
+        long length = channel.size() / SIZE_OF_DATA * SIZE_OF_DATA;
+        int chunkBytes = budgetBlocks * BLOCK_SIZE;
+        ByteBuffer chunk = ByteBuffer.allocateDirect(chunkBytes);
+        int[] records = new int[chunkBytes / SIZE_OF_DATA];
+        for (long start = 0; start < length; start += chunkBytes) {
+            int bytes = (int)Math.min(chunkBytes, length - start);
+            chunk.clear().limit(bytes);
+            readFully(channel, chunk, start);
+            chunk.flip();
+            int count = bytes / SIZE_OF_DATA;
+            chunk.asIntBuffer().get(records, 0, count);
+            int[] sorted = MemorySort.countingSort(records, count);
+            runCount++;
+            chunk.clear().limit(bytes);
+            chunk.asIntBuffer().put(sorted, 0, count);
+            if (length <= chunkBytes) {
+                writeFully(channel, chunk, 0);
+                return runs;
+            }
+            File run = File.createTempFile("run", ".bin", tempDirectory);
+            run.deleteOnExit();
+            try (RandomAccessFile out = new RandomAccessFile(run, "rw")) {
+                writeFully(out.getChannel(), chunk, 0);
+            }
+            runs.appendNode(new DualNode<>(run));
+        }
+        return runs;
+    }
+
+
+    /**
+     * Merges the runs in groups of the fan-in. When one group covers every
+     * run, it is merged straight into the data file.
+     *
+     * @param runs
+     *            the runs to merge
+     * @param channel
+     *            the data file
+     * @return the runs left after this pass
+     * @throws IOException
+     *             if error in reading or writing a file
+     */
+    private DoublyLinkedList<File> mergePass(
+        DoublyLinkedList<File> runs,
+        FileChannel channel)
+        throws IOException {
+        int fanIn = Math.max(2, budgetBlocks - 1);
+        boolean last = runs.listSize() <= fanIn;
+        DoublyLinkedList<File> merged = new DoublyLinkedList<>();
+        while (!runs.listIsEmpty()) {
+            int groupSize = Math.min(fanIn, runs.listSize());
+            File[] group = new File[groupSize];
+            for (int i = 0; i < groupSize; i++) {
+                group[i] = runs.extractFromFront().getElementData();
+            }
+            if (last) {
+                mergeGroup(group, channel);
+            }
+            else {
+                File run = File.createTempFile("run", ".bin", tempDirectory);
+                run.deleteOnExit();
+                try (RandomAccessFile out = new RandomAccessFile(run, "rw")) {
+                    mergeGroup(group, out.getChannel());
+                }
+                merged.appendNode(new DualNode<>(run));
+            }
+            for (File input : group) {
+                input.delete();
+            }
+        }
+        return merged;
+    }
+
+
+    /**
+     * Merges a group of runs into one output with a LoserTree. The budget
+     * is shared out as one input buffer per run plus one output buffer.
+     *
+     * @param group
+     *            the runs to merge
+     * @param output
+     *            where the merged run goes, written from the start
+     * @throws IOException
+     *             if error in reading or writing a file
+     */
+    private void mergeGroup(File[] group, FileChannel output)
+        throws IOException {
+        int bufferBytes = Math.max(1, budgetBlocks / (group.length + 1))
+            * BLOCK_SIZE;
+        RunReader[] readers = new RunReader[group.length];
+        int[] heads = new int[group.length];
+        boolean[] present = new boolean[group.length];
+        try {
+            for (int i = 0; i < group.length; i++) {
+                readers[i] = new RunReader(group[i], bufferBytes);
+                present[i] = readers[i].hasNext();
+                heads[i] = present[i] ? readers[i].next() : 0;
+            }
+            RunWriter writer = new RunWriter(output, bufferBytes);
+            LoserTree tree = new LoserTree(heads, present);
+            for (int run = tree.winner(); run >= 0; run = tree.winner()) {
+                writer.write(tree.winningRecord());
+                boolean more = readers[run].hasNext();
+                tree.replaceWinner(more ? readers[run].next() : 0, more);
+            }
+            writer.flush();
+        }
+        finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Reads from a channel until the buffer is full
+     *
+     * @param channel
+     *            the file to read
+     * @param buffer
+     *            the buffer to fill up to its limit
+     * @param position
+     *            where to start reading
+     * @throws IOException
+     *             if error in reading the file
+     */
+    private void readFully(
+        FileChannel channel,
+        ByteBuffer buffer,
+        long position)
+        throws IOException {
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer
+            .position()) >= 0) {
+            // Keep reading until the buffer is full or the file ends.
+        }
+        bytesRead += bytes;
+        for (int b = 0; b < (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE; b++) {
+            Quicksort.incrementRetrievalAttempts();
+        }
+    }
+
+
+    /**
+     * Writes a whole buffer to a channel
+     *
+     * @param channel
+     *            the file to write
+     * @param buffer
+     *            the buffer to write up to its limit
+     * @param position
+     *            where to start writing
+     * @throws IOException
+     *             if error in writing the file
+     */
+    private void writeFully(
+        FileChannel channel,
+        ByteBuffer buffer,
+        long position)
+        throws IOException {
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        bytesWritten += bytes;
+        for (int b = 0; b < (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE; b++) {
+            Quicksort.incrementStorageOperations();
+        }
+    }
+
+    /**
+     * Reads the records of one run through a buffer
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private class RunReader {
+        private RandomAccessFile file;
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private IntBuffer records;
+        private long position;
+        private long length;
+
+        /**
+         * Constructor for the RunReader class
+         *
+         * @param run
+         *            the run file
+         * @param bufferBytes
+         *            the buffer size
+         * @throws IOException
+         *             if error in opening the run
+         */
+        RunReader(File run, int bufferBytes) throws IOException {
+            file = new RandomAccessFile(run, "r");
+            channel = file.getChannel();
+            length = channel.size();
+            buffer = ByteBuffer.allocateDirect(bufferBytes);
+            records = buffer.asIntBuffer();
+            records.limit(0);
+        }
+
+
+        /**
+         * Indicates if the run has more records, refilling the buffer if
+         * needed
+         *
+         * @return true if there is another record
+         * @throws IOException
+         *             if error in reading the run
+         */
+        boolean hasNext() throws IOException {
+            if (records.hasRemaining()) {
+                return true;
+            }
+            if (position >= length) {
+                return false;
+            }
+            int bytes = (int)Math.min(buffer.capacity(), length - position);
+            buffer.clear().limit(bytes);
+            readFully(channel, buffer, position);
+            position += bytes;
+            records.clear().limit(bytes / SIZE_OF_DATA);
+            return records.hasRemaining();
+        }
+
+
+        /**
+         * Gets the next record, after hasNext returned true
+         *
+         * @return the record
+         */
+        int next() {
+            return records.get();
+        }
+
+
+        /**
+         * Closes the run file
+         *
+         * @throws IOException
+         *             if error in closing the run
+         */
+        void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /**
+     * Writes records to an output through a buffer
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private class RunWriter {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private IntBuffer records;
+        private long position;
+
+        /**
+         * Constructor for the RunWriter class
+         *
+         * @param channel
+         *            the output file
+         * @param bufferBytes
+         *            the buffer size
+         */
+        RunWriter(FileChannel channel, int bufferBytes) {
+            this.channel = channel;
+            buffer = ByteBuffer.allocateDirect(bufferBytes);
+            records = buffer.asIntBuffer();
+        }
+
+
+        /**
+         * Adds a record, writing the buffer out when it is full
+         *
+         * @param record
+         *            the record
+         * @throws IOException
+         *             if error in writing the output
+         */
+        void write(int record) throws IOException {
+            if (!records.hasRemaining()) {
+                flush();
+            }
+            records.put(record);
+        }
+
+
+        /**
+         * Writes out the buffered records
+         *
+         * @throws IOException
+         *             if error in writing the output
+         */
+        void flush() throws IOException {
+            int bytes = records.position() * SIZE_OF_DATA;
+            buffer.clear().limit(bytes);
+            writeFully(channel, buffer, position);
+            position += bytes;
+            records.clear();
+        }
+    }
+}
@@ -44,14 +44,14 @@ public class FileGenerator
         throws IOException
     {
         short val;
-        int filesize = Integer.parseInt(args[2]); // Size of file in blocks
+        long filesize = Long.parseLong(args[2]); // Size of file in blocks
         DataOutputStream file =
             new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
                 args[1])));
 
         if (args[0].charAt(1) == 'b')
         { // Write out random numbers
-            for (int i = 0; i < filesize; i++)
+            for (long i = 0; i < filesize; i++)
             {
                 for (int j = 0; j < NUM_RECS; j++)
                 {
@@ -62,7 +62,7 @@ public class FileGenerator
         }
         else if (args[0].charAt(1) == 'a')
         { // Write out ASCII-readable values
-            for (int i = 0; i < filesize; i++)
+            for (long i = 0; i < filesize; i++)
             {
                 for (int j = 0; j < NUM_RECS; j++)
                 {
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+/**
+ * A doubly linked list of frame numbers with the links kept in parallel
+ * int arrays indexed by frame, in place of a DoublyLinkedList of DualNode
+ * objects. Every operation is O(1) and touches only a few array slots, and
+ * no node objects are created. A frame can be in the list at most once.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class FrameList {
+    /** Marks a missing link or an empty list */
+    public static final int NONE = -1;
+    private int[] previous;
+    private int[] next;
+    private boolean[] member;
+    private int firstFrame;
+    private int lastFrame;
+    private int count;
+
+    /**
+     * Constructor for the FrameList class
+     *
+     * @param capacity
+     *            the number of frames that may be in the list
+     */
+    public FrameList(int capacity) {
+        previous = new int[capacity];
+        next = new int[capacity];
+        member = new boolean[capacity];
+        Arrays.fill(previous, NONE);
+        Arrays.fill(next, NONE);
+        firstFrame = NONE;
+        lastFrame = NONE;
+    }
+
+
+    /**
+     * Checks if the list is empty
+     *
+     * @return true if empty, false if not
+     */
+    public boolean listIsEmpty() {
+        return count == 0;
+    }
+
+
+    /**
+     * Returns the current size of the list
+     *
+     * @return int of size
+     */
+    public int listSize() {
+        return count;
+    }
+
+
+    /**
+     * Indicates if a frame is in the list
+     *
+     * @param frame
+     *            the frame to find
+     * @return true if found, false if not
+     */
+    public boolean hasFrame(int frame) {
+        return member[frame];
+    }
+
+
+    /**
+     * Gives the first frame in the list
+     *
+     * @return the first frame, or NONE
+     */
+    public int fetchHead() {
+        return firstFrame;
+    }
+
+
+    /**
+     * Gives the last frame in the list
+     *
+     * @return the last frame, or NONE
+     */
+    public int fetchTail() {
+        return lastFrame;
+    }
+
+
+    /**
+     * Gives the frame before a frame in the list
+     *
+     * @param frame
+     *            a frame in the list
+     * @return the frame nearer the front, or NONE
+     */
+    public int fetchPrevious(int frame) {
+        return previous[frame];
+    }
+
+
+    /**
+     * Adds a frame to the front of the list
+     *
+     * @param frame
+     *            the frame to add
+     */
+    public void prependNode(int frame) {
+        previous[frame] = NONE;
+        next[frame] = firstFrame;
+        if (firstFrame == NONE) {
+            lastFrame = frame;
+        }
+        else {
+            previous[firstFrame] = frame;
+        }
+        firstFrame = frame;
+        member[frame] = true;
+        count++;
+    }
+
+
+    /**
+     * Moves a frame in the list to the front
+     *
+     * @param frame
+     *            the frame to move
+     */
+    public void elevate(int frame) {
+        if (firstFrame == frame) {
+            return;
+        }
+        unlink(frame);
+        previous[frame] = NONE;
+        next[frame] = firstFrame;
+        previous[firstFrame] = frame;
+        firstFrame = frame;
+    }
+
+
+    /**
+     * Deletes a frame from the list
+     *
+     * @param frame
+     *            the frame to delete
+     */
+    public void deleteNode(int frame) {
+        unlink(frame);
+        previous[frame] = NONE;
+        next[frame] = NONE;
+        member[frame] = false;
+        count--;
+    }
+
+
+    /**
+     * Removes the frame at the end of the list
+     *
+     * @return the last frame, or NONE if the list is empty
+     */
+    public int extractFromEnd() {
+        int frame = lastFrame;
+        if (frame != NONE) {
+            deleteNode(frame);
+        }
+        return frame;
+    }
+
+
+    /**
+     * Joins a frame's neighbours to each other
+     *
+     * @param frame
+     *            the frame being taken out
+     */
+    private void unlink(int frame) {
+        int before = previous[frame];
+        int after = next[frame];
+        if (before != NONE) {
+            next[before] = after;
+        }
+        else {
+            firstFrame = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        else {
+            lastFrame = before;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of durations in nanoseconds, laid out like an HDR
+ * histogram. Values below 128 get a bucket each. Above that every power of
+ * two range is split into 64 buckets, so a reported percentile is within
+ * 1.6% of the true value from a nanosecond up to the largest long, in a
+ * fixed 3712 buckets.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int HALF_BITS = SUB_BUCKET_BITS - 1;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1)
+        << HALF_BITS;
+    private AtomicLongArray buckets;
+    private LongAdder count;
+    private LongAdder total;
+    private LongAccumulator max;
+
+    /**
+     * Constructor for the LatencyHistogram class
+     */
+    public LatencyHistogram() {
+        buckets = new AtomicLongArray(BUCKET_COUNT);
+        count = new LongAdder();
+        total = new LongAdder();
+        max = new LongAccumulator(Long::max, 0);
+    }
+
+
+    /**
+     * Records one duration
+     *
+     * @param nanos
+     *            the duration, negative values count as zero
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+
+    /**
+     * Records the time since a start time
+     *
+     * @param startNanos
+     *            the start, from System.nanoTime
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+
+    /**
+     * Gets how many durations were recorded
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+
+    /**
+     * Gets the sum of the recorded durations
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+
+    /**
+     * Gets the longest recorded duration
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * Gets the mean recorded duration
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : getTotal() / n;
+    }
+
+
+    /**
+     * Gets the duration that a given share of the recorded durations do
+     * not exceed
+     *
+     * @param percent
+     *            the percentile, from 0 to 100
+     * @return the percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percent) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(percent / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+
+    /**
+     * Forgets every recorded duration
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+
+    /**
+     * Finds the bucket a value falls in
+     *
+     * @param value
+     *            the value, not negative
+     * @return the bucket index
+     */
+    private static int bucketOf(long value) {
+        int magnitude = Math.max(0, 63 - Long.numberOfLeadingZeros(value)
+            - HALF_BITS);
+        return (magnitude << HALF_BITS) + (int)(value >>> magnitude);
+    }
+
+
+    /**
+     * Finds the largest value that falls in a bucket
+     *
+     * @param bucket
+     *            the bucket index
+     * @return the largest value
+     */
+    private static long highestInBucket(int bucket) {
+        int magnitude = Math.max(0, (bucket >> HALF_BITS) - 1);
+        long subBucket = bucket - (magnitude << HALF_BITS);
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+}
@@ -0,0 +1,51 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests the LatencyHistogram
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    /**
+     * Checks the count, total, mean, max and percentiles of a uniform
+     * spread of values, allowing the histogram's 1.6% error
+     */
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 10);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500005, histogram.getMean());
+        double[] percents = { 50, 90, 99, 99.9 };
+        for (double percent : percents) {
+            double exact = percent * 10000;
+            long reported = histogram.getPercentile(percent);
+            assertTrue(percent + ": " + reported, reported >= exact
+                && reported <= exact * 1.016);
+        }
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+
+    /**
+     * Checks small values, negative values and reset
+     */
+    public void testSmallValuesAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(100);
+        assertEquals(0, histogram.getPercentile(10));
+        assertEquals(3, histogram.getPercentile(60));
+        assertEquals(100, histogram.getPercentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+}
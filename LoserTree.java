@@ -0,0 +1,133 @@
+/**
+ * Tournament tree of losers for a k-way merge of sorted runs. Each leaf
+ * holds the current record of one run; every inner node remembers the run
+ * that lost the match played there, and slot 0 holds the overall winner.
+ * Replacing the winner replays only the matches on its path to the root,
+ * so each record costs about log2(k) comparisons.
+ *
+ * Records compare by their 2-byte key, ties go to the lower run so the
+ * merge is stable, and an exhausted run loses to everything.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class LoserTree {
+    private int[] losers;
+    private int[] current;
+    private boolean[] exhausted;
+    private int size;
+
+    /**
+     * Constructor for the LoserTree class
+     *
+     * @param heads
+     *            the first record of each run
+     * @param present
+     *            false for runs that are already empty
+     */
+    public LoserTree(int[] heads, boolean[] present) {
+        size = heads.length;
+        current = heads.clone();
+        exhausted = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            exhausted[i] = !present[i];
+        }
+        losers = new int[Math.max(1, size)];
+        losers[0] = size == 0 ? -1 : build(1);
+    }
+
+
+    /**
+     * Gets the run holding the smallest current record
+     *
+     * @return the winning run, or -1 when every run is exhausted
+     */
+    public int winner() {
+        int run = losers[0];
+        return run < 0 || exhausted[run] ? -1 : run;
+    }
+
+
+    /**
+     * Gets the smallest current record
+     *
+     * @return the winning record
+     */
+    public int winningRecord() {
+        return current[losers[0]];
+    }
+
+
+    /**
+     * Replaces the winner with the next record of its run and replays its
+     * matches
+     *
+     * @param record
+     *            the next record of the winning run
+     * @param present
+     *            false if the winning run has no more records
+     */
+    public void replaceWinner(int record, boolean present) {
+        int run = losers[0];
+        current[run] = record;
+        exhausted[run] = !present;
+        int winner = run;
+        for (int node = (run + size) / 2; node > 0; node /= 2) {
+            if (beats(losers[node], winner)) {
+                int loser = winner;
+                winner = losers[node];
+                losers[node] = loser;
+            }
+        }
+        losers[0] = winner;
+    }
+
+
+    /**
+     * Plays the initial matches below a node
+     *
+     * @param node
+     *            the node, where leaves are numbered size to 2 * size - 1
+     * @return the winner of the subtree
+     */
+    private int build(int node) {
+        if (node >= size) {
+            return node - size;
+        }
+        int left = build(2 * node);
+        int right = 2 * node + 1 < 2 * size ? build(2 * node + 1) : -1;
+        if (right < 0) {
+            losers[node] = -1;
+            return left;
+        }
+        if (beats(right, left)) {
+            losers[node] = left;
+            return right;
+        }
+        losers[node] = right;
+        return left;
+    }
+
+
+    /**
+     * Indicates if one run's record beats another's
+     *
+     * @param run
+     *            the challenger
+     * @param other
+     *            the current holder
+     * @return true if the challenger wins
+     */
+    private boolean beats(int run, int other) {
+        if (run < 0 || exhausted[run]) {
+            return false;
+        }
+        if (other < 0 || exhausted[other]) {
+            return true;
+        }
+        int key = current[run] >> 16;
+        int otherKey = current[other] >> 16;
+        return key < otherKey || (key == otherKey && run < other);
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests the LoserTree that merges the runs of the external merge sort
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class LoserTreeTest extends TestCase {
+
+    /**
+     * Merges sorted runs of several lengths, some empty, and checks the
+     * output is the sorted records with ties taken from the lower run
+     */
+    public void testMergesRuns() {
+        Random random = new Random(3114);
+        for (int k = 1; k <= 9; k++) {
+            int[][] runs = new int[k][];
+            int total = 0;
+            for (int r = 0; r < k; r++) {
+                runs[r] = new int[r % 3 == 1 ? 0 : random.nextInt(50)];
+                for (int i = 0; i < runs[r].length; i++) {
+                    runs[r][i] = random.nextInt(8) << 16 | r;
+                }
+                Arrays.sort(runs[r]);
+                total += runs[r].length;
+            }
+            int[] heads = new int[k];
+            boolean[] present = new boolean[k];
+            int[] next = new int[k];
+            for (int r = 0; r < k; r++) {
+                present[r] = runs[r].length > 0;
+                heads[r] = present[r] ? runs[r][next[r]++] : 0;
+            }
+            LoserTree tree = new LoserTree(heads, present);
+            int[] merged = new int[total];
+            int count = 0;
+            for (int run = tree.winner(); run >= 0; run = tree.winner()) {
+                merged[count++] = tree.winningRecord();
+                boolean more = next[run] < runs[run].length;
+                tree.replaceWinner(more ? runs[run][next[run]++] : 0, more);
+            }
+            assertEquals(total, count);
+            int[] expected = merged.clone();
+            Arrays.sort(expected);
+            assertTrue(Arrays.equals(expected, merged));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * LRU-K eviction (O'Neil, O'Neil and Weikum). The victim is the frame whose
+ * K-th most recent reference is oldest, so blocks referenced fewer than K
+ * times go first. Time is counted in misses, and hits within the correlated
+ * reference period of the last reference count as the same reference, which
+ * keeps the thousand record touches of one sweep over a block from looking
+ * like a thousand separate references. Histories of evicted blocks are kept
+ * for a while so a block that comes back is not treated as brand new. A
+ * pinned frame keeps its history and is only skipped when choosing a victim.
+ *
+ * Tracked frames wait in a tree ordered by K-th reference. A reference only
+ * moves a frame's history later, so a hit leaves the frame's entry where it
+ * is and the entry is filed again when a victim search reaches it. A victim
+ * is then found in O(log n) for each entry the search refreshes or skips
+ * because its frame is still inside its correlated period.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class LruKPolicy implements EvictionPolicy {
+    private static final long CORRELATED_PERIOD = 2;
+    private int depth;
+    private long[][] history;
+    private long[] lastTouch;
+    private int[] blockOf;
+    private Entry[] entryOf;
+    private TreeSet<Entry> victims;
+    private long clock;
+    private DoublyLinkedList<History> retained;
+    private HashTable<Integer, DualNode<History>> retainedMap;
+    private int retainLimit;
+
+    /**
+     * The reference history of an evicted block
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private static class History {
+        private int blockIndex;
+        private long[] times;
+        private long lastTouch;
+    }
+
+    /**
+     * A frame's place in the victim order, keyed on its history when the
+     * entry was filed
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private static class Entry implements Comparable<Entry> {
+        private long kth;
+        private long latest;
+        private int frame;
+
+        @Override
+        public int compareTo(Entry other) {
+            if (kth != other.kth) {
+                return Long.compare(kth, other.kth);
+            }
+            if (latest != other.latest) {
+                return Long.compare(latest, other.latest);
+            }
+            return Integer.compare(frame, other.frame);
+        }
+    }
+
+    /**
+     * Constructor for the LruKPolicy class
+     *
+     * @param capacity
+     *            the number of frames in the pool
+     * @param depth
+     *            K, the number of references remembered per block
+     */
+    public LruKPolicy(int capacity, int depth) {
+        this.depth = depth;
+        history = new long[capacity][depth];
+        lastTouch = new long[capacity];
+        blockOf = new int[capacity];
+        entryOf = new Entry[capacity];
+        victims = new TreeSet<>();
+        retained = new DoublyLinkedList<>();
+        retainedMap = new HashTable<>();
+        retainLimit = Math.max(1, capacity * 2);
+    }
+
+
+    @Override
+    public String getName() {
+        return "lruk";
+    }
+
+
+    @Override
+    public void recordHit(int frame) {
+        reference(history[frame], lastTouch[frame]);
+        lastTouch[frame] = clock;
+    }
+
+
+    @Override
+    public void recordInsert(int frame, int blockIndex) {
+        clock++;
+        blockOf[frame] = blockIndex;
+        DualNode<History> node = retainedMap.delete(blockIndex);
+        if (node != null) {
+            retained.deleteNode(node);
+            History past = node.getElementData();
+            System.arraycopy(past.times, 0, history[frame], 0, depth);
+            reference(history[frame], past.lastTouch);
+        }
+        else {
+            Arrays.fill(history[frame], 0);
+            history[frame][0] = clock;
+        }
+        lastTouch[frame] = clock;
+        file(frame);
+    }
+
+
+    @Override
+    public void recordPin(int frame) {
+        remove(frame);
+    }
+
+
+    @Override
+    public void recordUnpin(int frame, int blockIndex) {
+        reference(history[frame], lastTouch[frame]);
+        lastTouch[frame] = clock;
+        file(frame);
+    }
+
+
+    @Override
+    public int selectVictim(int incomingBlock) {
+        Entry oldest = null;
+        Entry entry = victims.isEmpty() ? null : victims.first();
+        while (entry != null) {
+            int frame = entry.frame;
+            if (entry.kth != history[frame][depth - 1]
+                || entry.latest != history[frame][0]) {
+                victims.remove(entry);
+                file(frame);
+                entry = victims.ceiling(entry);
+            }
+            else if (clock - lastTouch[frame] > CORRELATED_PERIOD) {
+                break;
+            }
+            else {
+                if (oldest == null) {
+                    oldest = entry;
+                }
+                entry = victims.higher(entry);
+            }
+        }
+        int victim = entry != null
+            ? entry.frame
+            : oldest != null ? oldest.frame : -1;
+        if (victim >= 0) {
+            remove(victim);
+            retain(victim);
+        }
+        return victim;
+    }
+
+
+    @Override
+    public void remove(int frame) {
+        if (entryOf[frame] != null) {
+            victims.remove(entryOf[frame]);
+            entryOf[frame] = null;
+        }
+    }
+
+
+    /**
+     * Files a frame in the victim order under its current history
+     *
+     * @param frame
+     *            the frame
+     */
+    private void file(int frame) {
+        Entry entry = new Entry();
+        entry.kth = history[frame][depth - 1];
+        entry.latest = history[frame][0];
+        entry.frame = frame;
+        entryOf[frame] = entry;
+        victims.add(entry);
+    }
+
+
+    /**
+     * Applies a reference to a history. A reference inside the correlated
+     * period only moves the last touch; otherwise the history shifts, with
+     * the older times moved forward by the length of the correlated run.
+     *
+     * @param times
+     *            the history, most recent first
+     * @param last
+     *            the last touch of the block
+     */
+    private void reference(long[] times, long last) {
+        if (clock - last <= CORRELATED_PERIOD) {
+            return;
+        }
+        long correlated = last - times[0];
+        for (int i = depth - 1; i > 0; i--) {
+            times[i] = times[i - 1] == 0 ? 0 : times[i - 1] + correlated;
+        }
+        times[0] = clock;
+    }
+
+
+    /**
+     * Keeps the history of an evicted frame's block
+     *
+     * @param frame
+     *            the evicted frame
+     */
+    private void retain(int frame) {
+        History past = new History();
+        past.blockIndex = blockOf[frame];
+        past.times = history[frame].clone();
+        past.lastTouch = lastTouch[frame];
+        DualNode<History> node = new DualNode<>(past);
+        retained.prependNode(node);
+        retainedMap.add(past.blockIndex, node);
+        if (retained.listSize() > retainLimit) {
+            retainedMap.delete(retained.extractFromEnd()
+                .getElementData().blockIndex);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Least recently used eviction. Frames are kept in a list ordered from
+ * most to least recently used and the tail is evicted.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class LruPolicy implements EvictionPolicy {
+    private FrameList cacheSequence;
+
+    /**
+     * Constructor for the LruPolicy class
+     *
+     * @param capacity
+     *            the number of frames in the pool
+     */
+    public LruPolicy(int capacity) {
+        cacheSequence = new FrameList(capacity);
+    }
+
+
+    @Override
+    public String getName() {
+        return "lru";
+    }
+
+
+    @Override
+    public void recordHit(int frame) {
+        cacheSequence.elevate(frame);
+    }
+
+
+    @Override
+    public void recordInsert(int frame, int blockIndex) {
+        cacheSequence.prependNode(frame);
+    }
+
+
+    @Override
+    public void recordPin(int frame) {
+        cacheSequence.deleteNode(frame);
+    }
+
+
+    @Override
+    public void recordUnpin(int frame, int blockIndex) {
+        cacheSequence.prependNode(frame);
+    }
+
+
+    @Override
+    public int selectVictim(int incomingBlock) {
+        return cacheSequence.extractFromEnd();
+    }
+
+
+    @Override
+    public void remove(int frame) {
+        if (cacheSequence.hasFrame(frame)) {
+            cacheSequence.deleteNode(frame);
+        }
+    }
+}
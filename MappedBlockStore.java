@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+/**
+ * Storage backend that maps the data file into memory and serves reads and
+ * writes straight out of the mapped regions. Files larger than one window
+ * are mapped as several windows, each mapped the first time it is touched.
+ *
+ * The operating system does the caching here, so the counters are page
+ * fault equivalents: the first touch of a block is counted as a read, later
+ * touches as hits, and every block dirtied is counted as a write when the
+ * mapping is forced back to disk.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class MappedBlockStore {
+    private static final int BLOCK_SIZE = 4096;
+    private static final long WINDOW_SIZE = 1L << 30;
+    private FileChannel channel;
+    private MappedByteBuffer[] windows;
+    private long fileLength;
+    private BitSet touchedBlocks;
+    private BitSet dirtyBlocks;
+    private int windowLoads;
+    private boolean concurrent;
+
+    /**
+     * Constructor for the MappedBlockStore class
+     *
+     * @param channel
+     *            channel of the disk file
+     * @param concurrent
+     *            true if several threads share the store
+     * @throws IOException
+     *             if error in reading the file size
+     */
+    public MappedBlockStore(FileChannel channel, boolean concurrent)
+        throws IOException {
+        this.channel = channel;
+        this.concurrent = concurrent;
+        this.fileLength = channel.size();
+        windows = new MappedByteBuffer[(int)((fileLength + WINDOW_SIZE - 1)
+            / WINDOW_SIZE)];
+        touchedBlocks = new BitSet();
+        dirtyBlocks = new BitSet();
+    }
+
+
+    /**
+     * Reads data from the mapping
+     *
+     * @param buffer
+     *            where to read the bytes to
+     * @param size
+     *            how many bytes to read
+     * @param position
+     *            where to read the bytes from
+     * @throws IOException
+     *             if error in mapping a window
+     */
+    public void readData(byte[] buffer, int size, long position)
+        throws IOException {
+        MappedByteBuffer window = touch(position, false);
+        window.get((int)(position % WINDOW_SIZE), buffer, 0, size);
+    }
+
+
+    /**
+     * Writes data to the mapping
+     *
+     * @param buffer
+     *            bytes to write
+     * @param size
+     *            how many bytes to write
+     * @param position
+     *            where to write bytes to
+     * @throws IOException
+     *             if error in mapping a window
+     */
+    public void writeData(byte[] buffer, int size, long position)
+        throws IOException {
+        MappedByteBuffer window = touch(position, true);
+        window.put((int)(position % WINDOW_SIZE), buffer, 0, size);
+    }
+
+
+    /**
+     * Reads a 4-byte big-endian value from the mapping
+     *
+     * @param position
+     *            where to read the value from
+     * @return the value
+     * @throws IOException
+     *             if error in mapping a window
+     */
+    public int readInt(long position) throws IOException {
+        return touch(position, false).getInt((int)(position % WINDOW_SIZE));
+    }
+
+
+    /**
+     * Writes a 4-byte big-endian value to the mapping
+     *
+     * @param position
+     *            where to write the value to
+     * @param value
+     *            the value to write
+     * @throws IOException
+     *             if error in mapping a window
+     */
+    public void writeInt(long position, int value) throws IOException {
+        touch(position, true).putInt((int)(position % WINDOW_SIZE), value);
+    }
+
+
+    /**
+     * Forces every dirty window back to disk
+     */
+    public synchronized void flush() {
+        for (int w = 0; w < windows.length; w++) {
+            if (windows[w] == null) {
+                continue;
+            }
+            int firstBlock = (int)(w * WINDOW_SIZE / BLOCK_SIZE);
+            int lastBlock = firstBlock + windows[w].capacity() / BLOCK_SIZE;
+            int dirtyCount = dirtyBlocks.get(firstBlock, lastBlock)
+                .cardinality();
+            if (dirtyCount > 0) {
+                windows[w].force();
+                for (int i = 0; i < dirtyCount; i++) {
+                    Quicksort.incrementStorageOperations();
+                }
+            }
+        }
+        dirtyBlocks.clear();
+    }
+
+
+    /**
+     * Gets how many windows have been mapped
+     *
+     * @return number of window loads
+     */
+    public int getWindowLoads() {
+        return windowLoads;
+    }
+
+
+    /**
+     * Finds the window holding a position and counts the touch of its
+     * block, holding the store's lock only when several threads share it
+     *
+     * @param position
+     *            the file position
+     * @param write
+     *            true if the block is about to be written
+     * @return the window holding the position
+     * @throws IOException
+     *             if error in mapping the window
+     */
+    private MappedByteBuffer touch(long position, boolean write)
+        throws IOException {
+        if (!concurrent) {
+            return locate(position, write);
+        }
+        synchronized (this) {
+            return locate(position, write);
+        }
+    }
+
+
+    /**
+     * Finds the window holding a position, mapping it if needed, and counts
+     * the touch of its block
+     *
+     * @param position
+     *            the file position
+     * @param write
+     *            true if the block is about to be written
+     * @return the window holding the position
+     * @throws IOException
+     *             if error in mapping the window
+     */
+    private MappedByteBuffer locate(long position, boolean write)
+        throws IOException {
+        int w = (int)(position / WINDOW_SIZE);
+        if (windows[w] == null) {
+            long start = w * WINDOW_SIZE;
+            windows[w] = channel.map(FileChannel.MapMode.READ_WRITE, start,
+                Math.min(WINDOW_SIZE, fileLength - start));
+            windowLoads++;
+        }
+        int blockIdx = (int)(position / BLOCK_SIZE);
+        if (touchedBlocks.get(blockIdx)) {
+            Quicksort.incrementSuccessfulRetrievals();
+        }
+        else {
+            touchedBlocks.set(blockIdx);
+            Quicksort.incrementRetrievalAttempts();
+        }
+        if (write) {
+            dirtyBlocks.set(blockIdx);
+        }
+        return windows[w];
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sorts a whole data file in memory. The file is read into an int array in
+ * large sequential chunks, sorted with a single counting pass over the
+ * 65,536 possible keys into a second array, and written back in one
+ * sequential pass. The buffer pool is not used at all, so this needs about
+ * twice the file size in heap.
+ *
+ * Each block read counts as a read and each block written as a write, so
+ * the usual report still means something.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class MemorySort {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int SIZE_OF_DATA = 4;
+    private static final int CHUNK_SIZE = 256 * BLOCK_SIZE;
+    private static final int KEY_COUNT = 1 << 16;
+    private String fileName;
+
+    /**
+     * Constructor for the MemorySort class
+     *
+     * @param fileName
+     *            the data file to sort
+     */
+    public MemorySort(String fileName) {
+        this.fileName = fileName;
+    }
+
+
+    /**
+     * Indicates if a file can be sorted within a memory budget
+     *
+     * @param fileLength
+     *            the file size in bytes
+     * @param budget
+     *            the memory budget in bytes
+     * @return true if both arrays fit in the budget
+     */
+    public static boolean fits(long fileLength, long budget) {
+        return fileLength * 2 <= budget
+            && fileLength / SIZE_OF_DATA <= Integer.MAX_VALUE - 8;
+    }
+
+
+    /**
+     * Reads, sorts and writes back the file
+     *
+     * @throws IOException
+     *             if error in reading or writing the file
+     */
+    public void sortFile() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+            FileChannel channel = file.getChannel();
+            int[] records = new int[(int)(channel.size() / SIZE_OF_DATA)];
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            transfer(channel, chunk, records, false);
+            int[] sorted = countingSort(records, records.length);
+            transfer(channel, chunk, sorted, true);
+        }
+    }
+
+
+    /**
+     * Sorts records by their 2-byte key with one counting pass. The sign
+     * bit of the key is flipped so negative keys come first.
+     *
+     * @param records
+     *            the records, key in the high 16 bits
+     * @param count
+     *            how many records at the front of the array to sort
+     * @return a new array holding the records in key order
+     */
+    static int[] countingSort(int[] records, int count) {
+        int[] offsets = new int[KEY_COUNT + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[((records[i] >>> 16) ^ 0x8000) + 1]++;
+        }
+        for (int k = 0; k < KEY_COUNT; k++) {
+            offsets[k + 1] += offsets[k];
+        }
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[offsets[(records[i] >>> 16) ^ 0x8000]++] = records[i];
+        }
+        return sorted;
+    }
+
+
+    /**
+     * Moves every record between the file and an array in large
+     * sequential chunks
+     *
+     * @param channel
+     *            the data file
+     * @param chunk
+     *            the transfer buffer
+     * @param records
+     *            the records
+     * @param toFile
+     *            true to write the array to the file, false to read it
+     * @throws IOException
+     *             if error in reading or writing the file
+     */
+    private void transfer(
+        FileChannel channel,
+        ByteBuffer chunk,
+        int[] records,
+        boolean toFile)
+        throws IOException {
+        long position = 0;
+        int done = 0;
+        while (done < records.length) {
+            int count = Math.min(records.length - done, CHUNK_SIZE
+                / SIZE_OF_DATA);
+            chunk.clear().limit(count * SIZE_OF_DATA);
+            if (toFile) {
+                chunk.asIntBuffer().put(records, done, count);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk, position + chunk.position());
+                }
+            }
+            else {
+                while (chunk.hasRemaining() && channel.read(chunk, position
+                    + chunk.position()) >= 0) {
+                    // Keep reading until the chunk is full.
+                }
+                chunk.flip();
+                chunk.asIntBuffer().get(records, done, count);
+            }
+            countBlocks(count * SIZE_OF_DATA, toFile);
+            position += count * SIZE_OF_DATA;
+            done += count;
+        }
+    }
+
+
+    /**
+     * Counts the blocks moved by one chunk
+     *
+     * @param bytes
+     *            the chunk size in bytes
+     * @param written
+     *            true for writes, false for reads
+     */
+    private void countBlocks(int bytes, boolean written) {
+        for (int b = 0; b < (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE; b++) {
+            if (written) {
+                Quicksort.incrementStorageOperations();
+            }
+            else {
+                Quicksort.incrementRetrievalAttempts();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/**
+ * Tests the counting sort behind the in-memory sort path
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class MemorySortTest extends TestCase {
+
+    /**
+     * Checks that the counting sort orders negative keys first and keeps
+     * records with equal keys in their input order
+     */
+    public void testCountingSort() {
+        int[] records = { 5 << 16 | 1, -3 << 16 | 2, 5 << 16 | 0, 0, -3 << 16
+            | 1 };
+        int[] sorted = MemorySort.countingSort(records, records.length);
+        int[] expected = { -3 << 16 | 2, -3 << 16 | 1, 0, 5 << 16 | 1, 5 << 16
+            | 0 };
+        assertTrue(Arrays.equals(expected, sorted));
+    }
+}
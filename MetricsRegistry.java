@@ -0,0 +1,241 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and latency timers shared by the whole program. Counters
+ * are always kept since a LongAdder costs about as much as the int field
+ * it replaces. Timers need two System.nanoTime calls per event, so timer
+ * returns null unless timing was switched on, and callers skip the clock
+ * when they hold a null timer.
+ *
+ * The registry can be written as JSON or CSV next to the text stats file.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class MetricsRegistry {
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+    private static Map<String, LongAdder> counters =
+        new ConcurrentSkipListMap<>();
+    private static Map<String, LatencyHistogram> timers =
+        new ConcurrentSkipListMap<>();
+    private static volatile boolean timing;
+
+    /**
+     * Gets a counter, creating it the first time it is asked for
+     *
+     * @param name
+     *            the counter's name
+     * @return the counter
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+
+    /**
+     * Gets a timer, creating it the first time it is asked for
+     *
+     * @param name
+     *            the timer's name
+     * @return the timer, or null if timing is off
+     */
+    public static LatencyHistogram timer(String name) {
+        if (!timing) {
+            return null;
+        }
+        return timers.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+
+    /**
+     * Switches timing on or off for timers asked for from now on
+     *
+     * @param enabled
+     *            true to time events
+     */
+    public static void setTiming(boolean enabled) {
+        timing = enabled;
+    }
+
+
+    /**
+     * Zeroes every counter and timer, keeping them registered so the
+     * callers' references stay valid
+     */
+    public static void reset() {
+        for (LongAdder value : counters.values()) {
+            value.reset();
+        }
+        for (LatencyHistogram value : timers.values()) {
+            value.reset();
+        }
+    }
+
+
+    /**
+     * Writes every counter and timer, plus report lines, to a file. A name
+     * ending in ".csv" gets CSV and anything else gets JSON.
+     *
+     * @param fileName
+     *            the file to write
+     * @param report
+     *            "label: value" lines to include as details
+     * @throws IOException
+     *             if error in writing the file
+     */
+    public static void write(String fileName, Iterable<String> report)
+        throws IOException {
+        try (FileWriter writer = new FileWriter(fileName)) {
+            writer.write(fileName.endsWith(".csv")
+                ? toCsv(report)
+                : toJson(report));
+        }
+    }
+
+
+    /**
+     * Formats the registry as a JSON object with "counters", "timers" and
+     * "details" members. Timer figures are in nanoseconds.
+     *
+     * @param report
+     *            "label: value" lines to include as details
+     * @return the JSON text
+     */
+    public static String toJson(Iterable<String> report) {
+        StringBuilder json = new StringBuilder("{\n  \"counters\": {");
+        String separator = "\n";
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            json.append(separator).append("    ").append(quoteJson(entry
+                .getKey())).append(": ").append(entry.getValue().sum());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"timers\": {");
+        separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : timers.entrySet()) {
+            LatencyHistogram timer = entry.getValue();
+            json.append(separator).append("    ").append(quoteJson(entry
+                .getKey())).append(": {\"count\": ").append(timer.getCount())
+                .append(", \"total\": ").append(timer.getTotal()).append(
+                    ", \"mean\": ").append(timer.getMean());
+            for (double percent : PERCENTILES) {
+                json.append(", \"p").append(percentLabel(percent)).append(
+                    "\": ").append(timer.getPercentile(percent));
+            }
+            json.append(", \"max\": ").append(timer.getMax()).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"details\": {");
+        separator = "\n";
+        for (String line : report) {
+            int colon = line.indexOf(": ");
+            if (colon < 0) {
+                continue;
+            }
+            String value = line.substring(colon + 2);
+            json.append(separator).append("    ").append(quoteJson(line
+                .substring(0, colon))).append(": ").append(value.matches(
+                    "-?[0-9]+") ? value : quoteJson(value));
+            separator = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+
+    /**
+     * Formats the registry as CSV, one row per counter, timer and detail.
+     * Timer figures are in nanoseconds.
+     *
+     * @param report
+     *            "label: value" lines to include as details
+     * @return the CSV text
+     */
+    public static String toCsv(Iterable<String> report) {
+        StringBuilder csv = new StringBuilder("kind,name,value,count,mean");
+        for (double percent : PERCENTILES) {
+            csv.append(",p").append(percentLabel(percent));
+        }
+        csv.append(",max\n");
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            csv.append("counter,").append(quoteCsv(entry.getKey())).append(
+                ',').append(entry.getValue().sum()).append(",,,,,,,\n");
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : timers.entrySet()) {
+            LatencyHistogram timer = entry.getValue();
+            csv.append("timer,").append(quoteCsv(entry.getKey())).append(
+                ',').append(timer.getTotal()).append(',').append(timer
+                    .getCount()).append(',').append(timer.getMean());
+            for (double percent : PERCENTILES) {
+                csv.append(',').append(timer.getPercentile(percent));
+            }
+            csv.append(',').append(timer.getMax()).append('\n');
+        }
+        for (String line : report) {
+            int colon = line.indexOf(": ");
+            if (colon >= 0) {
+                csv.append("detail,").append(quoteCsv(line.substring(0,
+                    colon))).append(',').append(quoteCsv(line.substring(colon
+                        + 2))).append(",,,,,,,\n");
+            }
+        }
+        return csv.toString();
+    }
+
+
+    /**
+     * Names a percentile for a column or member, such as "99" or "99.9"
+     *
+     * @param percent
+     *            the percentile
+     * @return the label
+     */
+    private static String percentLabel(double percent) {
+        return percent == Math.rint(percent)
+            ? String.valueOf((long)percent)
+            : String.valueOf(percent);
+    }
+
+
+    /**
+     * Quotes a string for JSON
+     *
+     * @param text
+     *            the string
+     * @return the quoted string
+     */
+    private static String quoteJson(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            }
+            else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int)c));
+            }
+            else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+
+    /**
+     * Quotes a CSV field when it holds a comma, quote or line break
+     *
+     * @param text
+     *            the field
+     * @return the field, quoted if needed
+     */
+    private static String quoteCsv(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf(
+            '\n') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * Maps block indexes to frame indexes for the BufferPool. Keys and values
+ * are primitive ints kept in parallel arrays with open addressing and
+ * linear probing, so a lookup boxes nothing and chases no nodes. Removal
+ * shifts the rest of the probe run back instead of leaving tombstones.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class PageTable {
+    /** Returned by lookups when the block is not in the table */
+    public static final int ABSENT = -1;
+    private static final int EMPTY = -1;
+    private static final int GOLDEN = 0x9E3779B9;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int count;
+
+    /**
+     * Constructor for the PageTable class
+     *
+     * @param capacity
+     *            the number of entries expected
+     */
+    public PageTable(int capacity) {
+        allocate(Math.max(2, Integer.highestOneBit(Math.max(1, capacity))
+            << 2));
+    }
+
+
+    /**
+     * Gets the frame holding a block
+     *
+     * @param key
+     *            the block index
+     * @return the frame index, or ABSENT
+     */
+    public int get(int key) {
+        int slot = home(key);
+        int current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+
+    /**
+     * Adds or updates the frame holding a block
+     *
+     * @param key
+     *            the block index
+     * @param value
+     *            the frame index
+     */
+    public void put(int key, int value) {
+        if ((count + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = home(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        count++;
+    }
+
+
+    /**
+     * Removes a block from the table
+     *
+     * @param key
+     *            the block index
+     * @return the frame index it had, or ABSENT
+     */
+    public int remove(int key) {
+        int slot = home(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return ABSENT;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int wanted = home(keys[next]);
+            // Move the entry back unless its home lies after the hole.
+            if (((next - wanted) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        count--;
+        return removed;
+    }
+
+
+    /**
+     * Moves a frame from its old block to a new one, the combined step of
+     * a miss: the victim's entry goes and the new block's entry comes in
+     *
+     * @param oldKey
+     *            the block leaving the frame, or a negative value if the
+     *            frame was unused
+     * @param newKey
+     *            the block entering the frame
+     * @param value
+     *            the frame index
+     */
+    public void replace(int oldKey, int newKey, int value) {
+        if (oldKey >= 0) {
+            remove(oldKey);
+        }
+        put(newKey, value);
+    }
+
+
+    /**
+     * Gets the entry number
+     *
+     * @return int for entries
+     */
+    public int countEntries() {
+        return count;
+    }
+
+
+    /**
+     * Finds the first slot a key probes
+     *
+     * @param key
+     *            the block index
+     * @return the home slot
+     */
+    private int home(int key) {
+        return (key * GOLDEN) >>> shift;
+    }
+
+
+    /**
+     * Creates empty arrays of a power of two size
+     *
+     * @param size
+     *            the number of slots
+     */
+    private void allocate(int size) {
+        keys = new int[size];
+        values = new int[size];
+        Arrays.fill(keys, EMPTY);
+        mask = size - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(size);
+        count = 0;
+    }
+
+
+    /**
+     * Doubles the table and reinserts every entry
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
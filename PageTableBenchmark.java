@@ -0,0 +1,139 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times the BufferPool's page table work: a lookup per access, and on a
+ * miss the victim's entry removed and the new block's entry added. The
+ * same access trace is run against the generic HashTable the pool used to
+ * have and against the primitive PageTable.
+ *
+ * Usage: java PageTableBenchmark [frames] [blocks] [accesses]
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class PageTableBenchmark {
+    private static final int ROUNDS = 5;
+
+    /**
+     * Main method for the benchmark
+     *
+     * @param args
+     *            optional frame count, block count and access count
+     */
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int blocks = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int accesses = args.length > 2 ? Integer.parseInt(args[2]) : 5000000;
+        int[] trace = buildTrace(frames, blocks, accesses);
+        System.out.printf("frames=%d blocks=%d accesses=%d%n", frames,
+            blocks, accesses);
+        for (int round = 1; round <= ROUNDS; round++) {
+            long hashNanos = runHashTable(trace, frames);
+            long tableNanos = runPageTable(trace, frames);
+            System.out.printf(
+                "round %d: HashTable %.2f ns/access, PageTable %.2f "
+                    + "ns/access%n", round, (double)hashNanos / accesses,
+                (double)tableNanos / accesses);
+        }
+    }
+
+
+    /**
+     * Builds an access trace that mostly stays within a working set the
+     * size of the pool and sometimes jumps elsewhere, like a partition
+     * sweep
+     *
+     * @param frames
+     *            the pool size
+     * @param blocks
+     *            the file size in blocks
+     * @param accesses
+     *            the trace length
+     * @return the block index of each access
+     */
+    private static int[] buildTrace(int frames, int blocks, int accesses) {
+        Random rng = new Random(42);
+        int[] trace = new int[accesses];
+        int base = 0;
+        for (int i = 0; i < accesses; i++) {
+            if (rng.nextInt(1024) == 0) {
+                base = rng.nextInt(blocks);
+            }
+            trace[i] = (base + rng.nextInt(frames)) % blocks;
+        }
+        return trace;
+    }
+
+
+    /**
+     * Replays the trace on the generic HashTable
+     *
+     * @param trace
+     *            the access trace
+     * @param frames
+     *            the pool size
+     * @return elapsed nanoseconds
+     */
+    private static long runHashTable(int[] trace, int frames) {
+        HashTable<Integer, Integer> table = new HashTable<>(frames);
+        int[] owner = new int[frames];
+        Arrays.fill(owner, -1);
+        int hand = 0;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int block : trace) {
+            Integer frame = table.fetch(block);
+            if (frame == null) {
+                frame = hand;
+                hand = (hand + 1) % frames;
+                if (owner[frame] >= 0) {
+                    table.delete(owner[frame]);
+                }
+                owner[frame] = block;
+                table.add(block, frame);
+            }
+            checksum += frame;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum < 0) {
+            System.out.println(checksum);
+        }
+        return elapsed;
+    }
+
+
+    /**
+     * Replays the trace on the primitive PageTable
+     *
+     * @param trace
+     *            the access trace
+     * @param frames
+     *            the pool size
+     * @return elapsed nanoseconds
+     */
+    private static long runPageTable(int[] trace, int frames) {
+        PageTable table = new PageTable(frames);
+        int[] owner = new int[frames];
+        Arrays.fill(owner, -1);
+        int hand = 0;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int block : trace) {
+            int frame = table.get(block);
+            if (frame == PageTable.ABSENT) {
+                frame = hand;
+                hand = (hand + 1) % frames;
+                table.replace(owner[frame], block, frame);
+                owner[frame] = block;
+            }
+            checksum += frame;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum < 0) {
+            System.out.println(checksum);
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests the PageTable against a HashMap
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class PageTableTest extends TestCase {
+
+    /**
+     * Checks put, get, update and remove on a few keys
+     */
+    public void testBasicOperations() {
+        PageTable table = new PageTable(4);
+        assertEquals(PageTable.ABSENT, table.get(7));
+        table.put(7, 1);
+        table.put(11, 2);
+        assertEquals(1, table.get(7));
+        assertEquals(2, table.get(11));
+        table.put(7, 3);
+        assertEquals(3, table.get(7));
+        assertEquals(2, table.countEntries());
+        assertEquals(3, table.remove(7));
+        assertEquals(PageTable.ABSENT, table.remove(7));
+        assertEquals(PageTable.ABSENT, table.get(7));
+        table.replace(11, 12, 2);
+        assertEquals(PageTable.ABSENT, table.get(11));
+        assertEquals(2, table.get(12));
+        table.replace(-1, 13, 0);
+        assertEquals(0, table.get(13));
+        assertEquals(2, table.countEntries());
+    }
+
+
+    /**
+     * Checks a long random mix of operations against a HashMap, with keys
+     * from a small range so probe runs collide and removals shift entries
+     */
+    public void testMatchesHashMap() {
+        PageTable table = new PageTable(64);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(3114);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(256);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? PageTable.ABSENT : removed,
+                    table.remove(key));
+            }
+            else if (expected.size() < 64) {
+                expected.put(key, i);
+                table.put(key, i);
+            }
+            assertEquals(expected.size(), table.countEntries());
+        }
+        for (int key = 0; key < 256; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? PageTable.ABSENT : value, table.get(
+                key));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Measures how the parallel quicksort scales. A fresh copy of the data file
+ * is sorted with 1, 2, 4 and so on up to the given number of threads, and
+ * the wall-clock time and speedup over one thread are printed for each.
+ * Any further "-name=value" options are passed on to every sort.
+ *
+ * Usage: java ParallelSpeedup {data-file} {numb-buffers} {max-threads}
+ * [options]
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class ParallelSpeedup {
+
+    /**
+     * Main method for the class
+     *
+     * @param args
+     *            command line arguments
+     * @throws IOException
+     *             if error in copying or sorting the file
+     */
+    public static void main(String[] args) throws IOException {
+        File source = new File(args[0]);
+        int maxThreads = Integer.parseInt(args[2]);
+        File copy = File.createTempFile("speedup", ".bin", source
+            .getAbsoluteFile().getParentFile());
+        copy.deleteOnExit();
+        System.out.println("Threads  Time(ms)  Speedup  Reads  Writes");
+        long baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Files.copy(source.toPath(), copy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+            String[] parameters = new String[args.length + 1];
+            parameters[0] = copy.getPath();
+            parameters[1] = args[1];
+            parameters[2] = "speedup";
+            parameters[3] = "-threads=" + threads;
+            System.arraycopy(args, 3, parameters, 4, args.length - 3);
+            Quicksort.resetMetrics();
+            long startTime = System.nanoTime();
+            Sort algorithm = new Sort(parameters);
+            algorithm.sortFile();
+            algorithm.cleanUp();
+            long millis = (System.nanoTime() - startTime) / 1000000;
+            if (threads == 1) {
+                baseline = Math.max(1, millis);
+            }
+            System.out.printf("%7d  %8d  %7.2f  %5d  %6d%n", threads, millis,
+                (double)baseline / Math.max(1, millis), Quicksort
+                    .getRetrievalAttempts(), Quicksort.getStorageOperations());
+        }
+        copy.delete();
+    }
+}
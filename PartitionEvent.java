@@ -0,0 +1,43 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one three-way partition of the quicksort.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@Name("project3.Partition")
+@Label("Partition")
+@Category({ "Project3", "Sort" })
+@Description("One three-way partition of a range of records")
+@StackTrace(false)
+public class PartitionEvent extends jdk.jfr.Event {
+    /** Index of the first record of the range */
+    @Label("Start")
+    public long start;
+
+    /** How many records the range holds */
+    @Label("Range Size")
+    public long size;
+
+    /** How many partitions enclose this one */
+    @Label("Depth")
+    public int depth;
+
+    /** The key records were compared against */
+    @Label("Pivot Key")
+    public int pivotKey;
+
+    /** How many records went below the pivot */
+    @Label("Smaller")
+    public long smaller;
+
+    /** How many records went above the pivot */
+    @Label("Larger")
+    public long larger;
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for BufferPool.purge, which writes every dirty
+ * frame back at the end of a sort.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@Name("project3.PoolPurge")
+@Label("Pool Purge")
+@Category({ "Project3", "Buffer Pool" })
+@Description("Dirty buffer pool frames written back at the end of a sort")
+public class PoolPurgeEvent extends jdk.jfr.Event {
+    /** How many dirty frames were written */
+    @Label("Dirty Frames")
+    public int dirtyFrames;
+
+    /** How many write calls the whole run made */
+    @Label("Write Calls")
+    public long writeCalls;
+}
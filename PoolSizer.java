@@ -0,0 +1,133 @@
+import java.util.Arrays;
+
+/**
+ * Picks the size of one buffer pool segment as it runs. The blocks most
+ * recently evicted are remembered as ghosts, as many as one growth step. A
+ * miss on a ghost is a miss that a pool one step larger would have hit, so
+ * the share of misses that hit ghosts estimates the gain from growing.
+ * Frames left idle for a whole epoch estimate what shrinking would cost.
+ *
+ * An epoch ends after as many misses as the segment has frames, or after
+ * a fixed number of lookups when misses are rare. The segment grows one
+ * step when enough misses hit ghosts, and gives back up to one step of
+ * idle frames when almost none do.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class PoolSizer {
+    private static final int MIN_EPOCH_MISSES = 64;
+    private static final int MAX_EPOCH_LOOKUPS = 1 << 20;
+    private static final int GROW_PERCENT = 5;
+    private static final int SHRINK_PERCENT = 1;
+    private int minFrames;
+    private int maxFrames;
+    private int step;
+    private int target;
+    private int[] ghosts;
+    private int ghostCursor;
+    private PageTable ghostSet;
+    private int lookups;
+    private int misses;
+    private int ghostHits;
+
+    /**
+     * Constructor for the PoolSizer class
+     *
+     * @param initialFrames
+     *            the starting size
+     * @param minFrames
+     *            the smallest size allowed
+     * @param maxFrames
+     *            the largest size allowed
+     * @param step
+     *            how many frames to grow or shrink by at a time
+     */
+    public PoolSizer(
+        int initialFrames,
+        int minFrames,
+        int maxFrames,
+        int step) {
+        this.minFrames = minFrames;
+        this.maxFrames = maxFrames;
+        this.step = step;
+        target = Math.max(minFrames, Math.min(maxFrames, initialFrames));
+        ghosts = new int[step];
+        Arrays.fill(ghosts, -1);
+        ghostSet = new PageTable(step);
+    }
+
+
+    /**
+     * Gets the size the segment should have
+     *
+     * @return the target number of frames
+     */
+    public int getTarget() {
+        return target;
+    }
+
+
+    /**
+     * Remembers an evicted block as a ghost, forgetting the oldest ghost
+     *
+     * @param blockIdx
+     *            the evicted block
+     */
+    public void recordEviction(int blockIdx) {
+        if (ghosts[ghostCursor] >= 0) {
+            ghostSet.remove(ghosts[ghostCursor]);
+        }
+        ghostSet.remove(blockIdx);
+        ghosts[ghostCursor] = blockIdx;
+        ghostSet.put(blockIdx, ghostCursor);
+        ghostCursor = (ghostCursor + 1) % ghosts.length;
+    }
+
+
+    /**
+     * Counts a lookup
+     *
+     * @param blockIdx
+     *            the block looked up
+     * @param hit
+     *            true if the block was in the segment
+     * @return true if the epoch is over and resize should be called
+     */
+    public boolean recordLookup(int blockIdx, boolean hit) {
+        lookups++;
+        if (!hit) {
+            misses++;
+            int slot = ghostSet.remove(blockIdx);
+            if (slot != PageTable.ABSENT) {
+                ghosts[slot] = -1;
+                ghostHits++;
+            }
+        }
+        return misses >= Math.max(MIN_EPOCH_MISSES, target)
+            || lookups >= MAX_EPOCH_LOOKUPS;
+    }
+
+
+    /**
+     * Ends the epoch and picks the new size
+     *
+     * @param idleFrames
+     *            how many frames were not used during the epoch
+     * @return the new target number of frames
+     */
+    public int resize(int idleFrames) {
+        if (misses > 0 && ghostHits * 100L >= misses * (long)GROW_PERCENT) {
+            target = Math.min(maxFrames, target + step);
+        }
+        else if (ghostHits * 100L <= misses * (long)SHRINK_PERCENT) {
+            target = Math.max(minFrames, target - Math.min(step,
+                idleFrames));
+        }
+        lookups = 0;
+        misses = 0;
+        ghostHits = 0;
+        return target;
+    }
+}
@@ -1,5 +1,7 @@
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 // On my honor:
 //
@@ -32,13 +34,17 @@ public class Quicksort {
 
     // Tracking attributes
     private static String identifier;
-    private static int hits = 0;
-    private static int attempts = 0;
-    private static int writes = 0;
+    private static LongAdder hits = MetricsRegistry.counter("hits");
+    private static LongAdder attempts = MetricsRegistry.counter("reads");
+    private static LongAdder writes = MetricsRegistry.counter("writes");
     private static long duration = 0;
+    private static DoublyLinkedList<String> details =
+        new DoublyLinkedList<>();
 
     /**
-     * Main method for the class
+     * Main method for the class. "-metrics=file" times the buffer pool and
+     * sort phases and writes every counter and timer to the file as JSON,
+     * or as CSV if its name ends in ".csv".
      * 
      * @param args
      *            command line agruments
@@ -47,6 +53,8 @@ public class Quicksort {
      */
     public static void main(String[] args) throws IOException {
         setupIdentifier(args[0]);
+        String metricsFile = new RunOptions(args).getString("metrics", null);
+        MetricsRegistry.setTiming(metricsFile != null);
         long startTime = System.nanoTime();
 
         Sort algorithm = new Sort(args);
@@ -56,6 +64,10 @@ public class Quicksort {
         computeDuration(System.nanoTime() - startTime);
 
         logMetrics(args[2]);
+        if (metricsFile != null) {
+            MetricsRegistry.write(metricsFile, Arrays.asList(generateReport()
+                .split("\n")));
+        }
     }
 
 
@@ -80,9 +92,38 @@ public class Quicksort {
      * @return a string of the statistics
      */
     private static String generateReport() {
-        return String.format(
+        StringBuilder report = new StringBuilder(String.format(
             "\nFile: %s\nHits: %d\nReads: %d\nWrites: %d\nTime: %d\n",
-            identifier, hits, attempts, writes, duration / 1000000);
+            identifier, hits.sum(), attempts.sum(), writes.sum(), duration
+                / 1000000));
+        for (String line : details) {
+            report.append(line).append('\n');
+        }
+        return report.toString();
+    }
+
+
+    /**
+     * Adds a labelled line to the end of the report
+     * 
+     * @param label
+     *            what the value describes
+     * @param value
+     *            the value to report
+     */
+    public static synchronized void recordDetail(String label, String value) {
+        details.appendNode(new DualNode<>(label + ": " + value));
+    }
+
+
+    /**
+     * Clears the counters and the report details so another sort can be
+     * measured in the same run
+     */
+    public static synchronized void resetMetrics() {
+        MetricsRegistry.reset();
+        duration = 0;
+        details = new DoublyLinkedList<>();
     }
 
 
@@ -112,8 +153,8 @@ public class Quicksort {
      * 
      * @return number of successful hits
      */
-    public static int getSuccessfulRetrievals() {
-        return hits;
+    public static long getSuccessfulRetrievals() {
+        return hits.sum();
     }
 
 
@@ -121,7 +162,7 @@ public class Quicksort {
      * Increments successful hits
      */
     public static void incrementSuccessfulRetrievals() {
-        hits++;
+        hits.increment();
     }
 
 
@@ -131,8 +172,9 @@ public class Quicksort {
      * @param newHits
      *            the new value of hits
      */
-    public static void updateSuccessfulRetrievals(int newHits) {
-        hits = newHits;
+    public static void updateSuccessfulRetrievals(long newHits) {
+        hits.reset();
+        hits.add(newHits);
     }
 
 
@@ -141,8 +183,8 @@ public class Quicksort {
      * 
      * @return retrieval attempts
      */
-    public static int getRetrievalAttempts() {
-        return attempts;
+    public static long getRetrievalAttempts() {
+        return attempts.sum();
     }
 
 
@@ -150,7 +192,7 @@ public class Quicksort {
      * Increments attempted hits
      */
     public static void incrementRetrievalAttempts() {
-        attempts++;
+        attempts.increment();
     }
 
 
@@ -160,8 +202,9 @@ public class Quicksort {
      * @param newReads
      *            the new value of attempts
      */
-    public static void updateRetrievalAttempts(int newReads) {
-        attempts = newReads;
+    public static void updateRetrievalAttempts(long newReads) {
+        attempts.reset();
+        attempts.add(newReads);
     }
 
 
@@ -170,8 +213,8 @@ public class Quicksort {
      * 
      * @return the value for writes
      */
-    public static int getStorageOperations() {
-        return writes;
+    public static long getStorageOperations() {
+        return writes.sum();
     }
 
 
@@ -179,7 +222,7 @@ public class Quicksort {
      * Increments writes value
      */
     public static void incrementStorageOperations() {
-        writes++;
+        writes.increment();
     }
 
 
@@ -189,8 +232,9 @@ public class Quicksort {
      * @param newWrites
      *            the new value for writes
      */
-    public static void updateStorageOperations(int newWrites) {
-        writes = newWrites;
+    public static void updateStorageOperations(long newWrites) {
+        writes.reset();
+        writes.add(newWrites);
     }
 
 
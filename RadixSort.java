@@ -0,0 +1,244 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Least significant digit radix sort on the 2-byte key, one byte per pass.
+ * A first sequential pass counts both key bytes. Each of the two scatter
+ * passes then reads its input sequentially and drops every record into one
+ * of 256 bucket buffers. A full bucket buffer is written at the bucket's
+ * next offset in the output. The low byte goes from the data file to a
+ * temporary file and the high byte goes back into the data file. Scattering
+ * is stable, so the result is ordered by the whole key.
+ *
+ * Memory is one block per bucket plus a read buffer, no matter how large
+ * the file is, and every record is read three times and written twice.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class RadixSort {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int SIZE_OF_DATA = 4;
+    private static final int RADIX = 256;
+    private static final int CHUNK_SIZE = 256 * BLOCK_SIZE;
+    private String fileName;
+    private File tempDirectory;
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * Constructor for the RadixSort class
+     *
+     * @param fileName
+     *            the data file to sort
+     * @param tempDirectory
+     *            where the intermediate file goes
+     */
+    public RadixSort(String fileName, File tempDirectory) {
+        this.fileName = fileName;
+        this.tempDirectory = tempDirectory;
+    }
+
+
+    /**
+     * Sorts the file and records the byte counts in the report
+     *
+     * @throws IOException
+     *             if error in reading or writing a file
+     */
+    public void sortFile() throws IOException {
+        File temp = File.createTempFile("radix", ".bin", tempDirectory);
+        temp.deleteOnExit();
+        try (RandomAccessFile data = new RandomAccessFile(fileName, "rw");
+            RandomAccessFile scratch = new RandomAccessFile(temp, "rw")) {
+            FileChannel dataChannel = data.getChannel();
+            long length = dataChannel.size() / SIZE_OF_DATA * SIZE_OF_DATA;
+            long[][] counts = countDigits(dataChannel, length);
+            scatter(dataChannel, scratch.getChannel(), length, counts[0], 16);
+            scatter(scratch.getChannel(), dataChannel, length, counts[1], 24);
+        }
+        temp.delete();
+        Quicksort.recordDetail("Passes", "3");
+        MetricsRegistry.counter("bytes read").add(bytesRead);
+        MetricsRegistry.counter("bytes written").add(bytesWritten);
+        Quicksort.recordDetail("Bytes read", String.valueOf(bytesRead));
+        Quicksort.recordDetail("Bytes written", String.valueOf(
+            bytesWritten));
+    }
+
+
+    /**
+     * Counts how many records have each value of the low and high key byte
+     *
+     * @param channel
+     *            the data file
+     * @param length
+     *            how many bytes of records the file holds
+     * @return the low byte counts followed by the high byte counts
+     * @throws IOException
+     *             if error in reading the file
+     */
+    private long[][] countDigits(FileChannel channel, long length)
+        throws IOException {
+        long[][] counts = new long[2][RADIX];
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        IntBuffer records = chunk.asIntBuffer();
+        for (long start = 0; start < length; start += CHUNK_SIZE) {
+            int bytes = (int)Math.min(CHUNK_SIZE, length - start);
+            chunk.clear().limit(bytes);
+            readFully(channel, chunk, start);
+            records.clear().limit(bytes / SIZE_OF_DATA);
+            while (records.hasRemaining()) {
+                int record = records.get();
+                counts[0][digit(record, 16)]++;
+                counts[1][digit(record, 24)]++;
+            }
+        }
+        return counts;
+    }
+
+
+    /**
+     * Moves every record from the input to the output, ordered by one key
+     * byte and otherwise in input order
+     *
+     * @param input
+     *            the file to read
+     * @param output
+     *            the file to write, the same size as the input
+     * @param length
+     *            how many bytes of records the input holds
+     * @param counts
+     *            how many records have each value of the byte
+     * @param shift
+     *            the bit position of the byte in a record
+     * @throws IOException
+     *             if error in reading or writing a file
+     */
+    private void scatter(
+        FileChannel input,
+        FileChannel output,
+        long length,
+        long[] counts,
+        int shift)
+        throws IOException {
+        long[] offsets = new long[RADIX];
+        for (int d = 1; d < RADIX; d++) {
+            offsets[d] = offsets[d - 1] + counts[d - 1] * SIZE_OF_DATA;
+        }
+        ByteBuffer arena = ByteBuffer.allocateDirect(RADIX * BLOCK_SIZE);
+        ByteBuffer[] buckets = new ByteBuffer[RADIX];
+        IntBuffer[] bucketRecords = new IntBuffer[RADIX];
+        for (int d = 0; d < RADIX; d++) {
+            buckets[d] = arena.slice(d * BLOCK_SIZE, BLOCK_SIZE);
+            bucketRecords[d] = buckets[d].asIntBuffer();
+        }
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        IntBuffer records = chunk.asIntBuffer();
+        for (long start = 0; start < length; start += CHUNK_SIZE) {
+            int bytes = (int)Math.min(CHUNK_SIZE, length - start);
+            chunk.clear().limit(bytes);
+            readFully(input, chunk, start);
+            records.clear().limit(bytes / SIZE_OF_DATA);
+            while (records.hasRemaining()) {
+                int record = records.get();
+                int d = digit(record, shift);
+                bucketRecords[d].put(record);
+                if (!bucketRecords[d].hasRemaining()) {
+                    offsets[d] = flushBucket(output, buckets[d],
+                        bucketRecords[d], offsets[d]);
+                }
+            }
+        }
+        for (int d = 0; d < RADIX; d++) {
+            offsets[d] = flushBucket(output, buckets[d], bucketRecords[d],
+                offsets[d]);
+        }
+    }
+
+
+    /**
+     * Gets one byte of a record's key, with the sign bit of the high byte
+     * flipped so negative keys come first
+     *
+     * @param record
+     *            the record, key in the high 16 bits
+     * @param shift
+     *            16 for the low key byte, 24 for the high key byte
+     * @return the bucket of the record
+     */
+    private static int digit(int record, int shift) {
+        int value = (record >>> shift) & 0xFF;
+        return shift == 24 ? value ^ 0x80 : value;
+    }
+
+
+    /**
+     * Writes out the records held by a bucket buffer
+     *
+     * @param output
+     *            the file to write
+     * @param bucket
+     *            the bucket buffer
+     * @param bucketRecords
+     *            the int view of the bucket buffer
+     * @param offset
+     *            where the bucket's next record goes
+     * @return where the bucket's next record goes after this write
+     * @throws IOException
+     *             if error in writing the file
+     */
+    private long flushBucket(
+        FileChannel output,
+        ByteBuffer bucket,
+        IntBuffer bucketRecords,
+        long offset)
+        throws IOException {
+        int bytes = bucketRecords.position() * SIZE_OF_DATA;
+        if (bytes == 0) {
+            return offset;
+        }
+        bucket.clear().limit(bytes);
+        while (bucket.hasRemaining()) {
+            output.write(bucket, offset + bucket.position());
+        }
+        bytesWritten += bytes;
+        Quicksort.incrementStorageOperations();
+        bucketRecords.clear();
+        return offset + bytes;
+    }
+
+
+    /**
+     * Reads from a channel until the buffer is full
+     *
+     * @param channel
+     *            the file to read
+     * @param buffer
+     *            the buffer to fill up to its limit
+     * @param position
+     *            where to start reading
+     * @throws IOException
+     *             if error in reading the file
+     */
+    private void readFully(
+        FileChannel channel,
+        ByteBuffer buffer,
+        long position)
+        throws IOException {
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer
+            .position()) >= 0) {
+            // Keep reading until the buffer is full or the file ends.
+        }
+        bytesRead += bytes;
+        for (int b = 0; b < (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE; b++) {
+            Quicksort.incrementRetrievalAttempts();
+        }
+    }
+}
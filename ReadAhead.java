@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Sequential read-ahead for the BufferPool. Each miss is compared with the
+ * recent misses; a miss right after its neighbour block marks a forward or
+ * backward sweep, and the next blocks in that direction are read on the
+ * background I/O thread into staging buffers. A later miss on a staged
+ * block waits for that read, if it is still in flight, and copies the bytes
+ * into its frame instead of reading the disk.
+ *
+ * The depth starts at one block, grows by one each time a staged block is
+ * used and halves each time one is dropped unused.
+ *
+ * A ReadAhead serves one segment of a striped pool, so it only sees that
+ * segment's blocks: stripes of consecutive blocks, one stripe in every few.
+ * The block after the last of a stripe is the first of the segment's next
+ * stripe, so a sweep carries on across the stripes in between.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class ReadAhead {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int RECENT_MISSES = 8;
+    private FileChannel channel;
+    private ExecutorService ioWorker;
+    private IntPredicate resident;
+    private int totalBlocks;
+    private int stripeBlocks;
+    private int stripeGap;
+    private int maxDepth;
+    private int depth;
+    private int[] recentMisses;
+    private int recentCursor;
+    private HashTable<Integer, DualNode<Staged>> stagedMap;
+    private DoublyLinkedList<Staged> stagedOrder;
+    private DoublyLinkedList<ByteBuffer> spareBuffers;
+    private int stageLimit;
+    private int issued;
+    private int used;
+    private int unused;
+    private LongAdder bytesRead;
+
+    /**
+     * A block read ahead of demand
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private static class Staged {
+        private int blockIndex;
+        private ByteBuffer blockData;
+        private Future<?> pending;
+    }
+
+    /**
+     * Constructor for the ReadAhead class
+     *
+     * @param channel
+     *            channel of the disk file
+     * @param ioWorker
+     *            the background I/O thread
+     * @param resident
+     *            tells if a block of the segment is already in the pool
+     * @param totalBlocks
+     *            number of blocks in the file
+     * @param stripeBlocks
+     *            number of consecutive blocks in a stripe
+     * @param stripes
+     *            the segment owns one stripe in every this many
+     * @param maxDepth
+     *            the most blocks read ahead of one sweep
+     */
+    public ReadAhead(
+        FileChannel channel,
+        ExecutorService ioWorker,
+        IntPredicate resident,
+        int totalBlocks,
+        int stripeBlocks,
+        int stripes,
+        int maxDepth) {
+        this.channel = channel;
+        this.ioWorker = ioWorker;
+        this.resident = resident;
+        this.totalBlocks = totalBlocks;
+        this.stripeBlocks = stripeBlocks;
+        this.stripeGap = (stripes - 1) * stripeBlocks;
+        this.maxDepth = maxDepth;
+        this.depth = 1;
+        recentMisses = new int[RECENT_MISSES];
+        Arrays.fill(recentMisses, -2);
+        stagedMap = new HashTable<>();
+        stagedOrder = new DoublyLinkedList<>();
+        spareBuffers = new DoublyLinkedList<>();
+        stageLimit = maxDepth * 4;
+        bytesRead = MetricsRegistry.counter("bytes read");
+    }
+
+
+    /**
+     * Fills a frame from a staged block, waiting for the read if it is
+     * still in flight
+     *
+     * @param blockIdx
+     *            the block that missed
+     * @param frame
+     *            the frame to fill
+     * @return true if the block was staged, false if it must be read
+     * @throws IOException
+     *             if the background read failed
+     */
+    public boolean fill(int blockIdx, ByteBuffer frame) throws IOException {
+        DualNode<Staged> node = stagedMap.delete(blockIdx);
+        if (node == null) {
+            return false;
+        }
+        stagedOrder.deleteNode(node);
+        Staged staged = node.getElementData();
+        await(staged.pending);
+        frame.put(0, staged.blockData, 0, BLOCK_SIZE);
+        spareBuffers.prependNode(new DualNode<>(staged.blockData));
+        used++;
+        depth = Math.min(maxDepth, depth + 1);
+        return true;
+    }
+
+
+    /**
+     * Records a miss and, if it continues a sweep, stages the next blocks
+     * in the same direction
+     *
+     * @param blockIdx
+     *            the block that missed
+     */
+    public void observeMiss(int blockIdx) {
+        int before = step(blockIdx, -1);
+        int after = step(blockIdx, 1);
+        int direction = 0;
+        for (int recent : recentMisses) {
+            if (recent == before) {
+                direction = 1;
+            }
+            else if (recent == after) {
+                direction = -1;
+            }
+        }
+        recentMisses[recentCursor] = blockIdx;
+        recentCursor = (recentCursor + 1) % RECENT_MISSES;
+        if (direction == 0) {
+            return;
+        }
+        int target = blockIdx;
+        for (int i = 1; i <= depth; i++) {
+            target = step(target, direction);
+            if (target < 0 || target >= totalBlocks) {
+                break;
+            }
+            if (stagedMap.fetch(target) == null && !resident.test(target)) {
+                stage(target);
+            }
+        }
+    }
+
+
+    /**
+     * Gives the segment's block next to a block in a direction, skipping
+     * the stripes of the other segments
+     *
+     * @param blockIdx
+     *            a block of the segment
+     * @param direction
+     *            1 for forward or -1 for backward
+     * @return the neighbouring block, which may be outside the file
+     */
+    private int step(int blockIdx, int direction) {
+        int next = blockIdx + direction;
+        if ((direction > 0 ? next : blockIdx) % stripeBlocks == 0) {
+            next += direction * stripeGap;
+        }
+        return next;
+    }
+
+
+    /**
+     * Drops every staged block, counting them as unused
+     */
+    public void finish() {
+        while (!stagedOrder.listIsEmpty()) {
+            drop(stagedOrder.fetchTail());
+        }
+    }
+
+
+    /**
+     * Gets how many blocks were read ahead
+     *
+     * @return blocks issued
+     */
+    public int getIssued() {
+        return issued;
+    }
+
+
+    /**
+     * Gets how many read-ahead blocks were used by a later miss
+     *
+     * @return blocks used
+     */
+    public int getUsed() {
+        return used;
+    }
+
+
+    /**
+     * Gets how many read-ahead blocks were dropped without being used
+     *
+     * @return blocks unused
+     */
+    public int getUnused() {
+        return unused;
+    }
+
+
+    /**
+     * Gets the current read-ahead depth
+     *
+     * @return the depth in blocks
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+
+    /**
+     * Starts the background read of a block
+     *
+     * @param blockIdx
+     *            the block to read
+     */
+    private void stage(int blockIdx) {
+        if (stagedOrder.listSize() >= stageLimit) {
+            drop(stagedOrder.fetchTail());
+        }
+        Staged staged = new Staged();
+        staged.blockIndex = blockIdx;
+        DualNode<ByteBuffer> spare = spareBuffers.extractFromFront();
+        staged.blockData = spare != null
+            ? spare.getElementData()
+            : ByteBuffer.allocateDirect(BLOCK_SIZE);
+        ByteBuffer target = staged.blockData;
+        long position = (long)blockIdx * BLOCK_SIZE;
+        staged.pending = ioWorker.submit(() -> {
+            target.clear();
+            while (target.hasRemaining() && channel.read(target, position
+                + target.position()) >= 0) {
+                // Keep reading until the buffer is full or the file ends.
+            }
+            bytesRead.add(target.position());
+            return null;
+        });
+        DualNode<Staged> node = new DualNode<>(staged);
+        stagedOrder.prependNode(node);
+        stagedMap.add(blockIdx, node);
+        issued++;
+    }
+
+
+    /**
+     * Drops a staged block that was never used
+     *
+     * @param node
+     *            the staged block's node
+     */
+    private void drop(DualNode<Staged> node) {
+        Staged staged = node.getElementData();
+        stagedOrder.deleteNode(node);
+        stagedMap.delete(staged.blockIndex);
+        if (staged.pending.isDone()) {
+            spareBuffers.prependNode(new DualNode<>(staged.blockData));
+        }
+        else {
+            staged.pending.cancel(false);
+        }
+        unused++;
+        depth = Math.max(1, depth / 2);
+    }
+
+
+    /**
+     * Waits for a background I/O task
+     *
+     * @param pending
+     *            the task to wait for
+     * @throws IOException
+     *             if the task failed or the wait was interrupted
+     */
+    static void await(Future<?> pending) throws IOException {
+        try {
+            pending.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for block I/O", e);
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Background block I/O failed", e
+                .getCause());
+        }
+    }
+}
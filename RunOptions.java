@@ -0,0 +1,136 @@
+/**
+ * Holds the optional "-name=value" flags that may follow the three
+ * positional command line arguments. A flag given without a value, such as
+ * "-trace", is stored as "true".
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class RunOptions {
+    private static final int POSITIONAL_COUNT = 3;
+    private HashTable<String, String> flags;
+
+    /**
+     * Constructor for the RunOptions class
+     *
+     * @param parameters
+     *            the parameters from command line
+     */
+    public RunOptions(String[] parameters) {
+        flags = new HashTable<>();
+        for (int i = POSITIONAL_COUNT; i < parameters.length; i++) {
+            String flag = parameters[i];
+            if (!flag.startsWith("-") || flag.length() < 2) {
+                throw new IllegalArgumentException("Unrecognized option: "
+                    + flag);
+            }
+            int split = flag.indexOf('=');
+            if (split < 0) {
+                flags.add(flag.substring(1), "true");
+            }
+            else {
+                flags.add(flag.substring(1, split), flag.substring(split
+                    + 1));
+            }
+        }
+    }
+
+
+    /**
+     * Indicates if a flag was given
+     *
+     * @param name
+     *            the flag name without the leading dash
+     * @return true if given, false if not
+     */
+    public boolean hasFlag(String name) {
+        return flags.fetch(name) != null;
+    }
+
+
+    /**
+     * Gets the value of a flag
+     *
+     * @param name
+     *            the flag name without the leading dash
+     * @param fallback
+     *            the value to use when the flag is missing
+     * @return the flag value
+     */
+    public String getString(String name, String fallback) {
+        String value = flags.fetch(name);
+        return value != null ? value : fallback;
+    }
+
+
+    /**
+     * Gets the value of a flag as an int
+     *
+     * @param name
+     *            the flag name without the leading dash
+     * @param fallback
+     *            the value to use when the flag is missing
+     * @return the flag value
+     */
+    public int getInt(String name, int fallback) {
+        return (int)getLong(name, fallback);
+    }
+
+
+    /**
+     * Gets the value of a flag as a long. Sizes may carry a k, m or g
+     * suffix.
+     *
+     * @param name
+     *            the flag name without the leading dash
+     * @param fallback
+     *            the value to use when the flag is missing
+     * @return the flag value
+     */
+    public long getLong(String name, long fallback) {
+        String value = flags.fetch(name);
+        if (value == null) {
+            return fallback;
+        }
+        long scale = 1;
+        char suffix = Character.toLowerCase(value.charAt(value.length()
+            - 1));
+        if (suffix == 'k' || suffix == 'm' || suffix == 'g') {
+            scale = suffix == 'k' ? 1L << 10 : suffix == 'm' ? 1L << 20
+                : 1L << 30;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * scale;
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad value for -" + name
+                + ": " + flags.fetch(name));
+        }
+    }
+
+
+    /**
+     * Gets the value of a flag as a double
+     *
+     * @param name
+     *            the flag name without the leading dash
+     * @param fallback
+     *            the value to use when the flag is missing
+     * @return the flag value
+     */
+    public double getDouble(String name, double fallback) {
+        String value = flags.fetch(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad value for -" + name
+                + ": " + value);
+        }
+    }
+}
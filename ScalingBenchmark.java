@@ -0,0 +1,58 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Measures how sorting scales with file size. For each comma separated
+ * size in blocks a binary test file is generated, sorted and deleted, and
+ * the wall-clock time, throughput and block reads and writes per block of
+ * data are printed. Any further "-name=value" options are passed on to
+ * every sort.
+ *
+ * Usage: java ScalingBenchmark {directory} {numb-buffers}
+ * {blocks,blocks,...} [options]
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class ScalingBenchmark {
+
+    /**
+     * Main method for the class
+     *
+     * @param args
+     *            command line arguments
+     * @throws IOException
+     *             if error in generating or sorting a file
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args[0]);
+        System.out.println(
+            "Blocks       MB  Time(ms)    MB/s  Reads/block  Writes/block");
+        for (String size : args[2].split(",")) {
+            long blocks = Long.parseLong(size);
+            File data = File.createTempFile("scale", ".bin", directory);
+            data.deleteOnExit();
+            new FileGenerator().generateFile(new String[] { "-b", data
+                .getPath(), size });
+            String[] parameters = new String[args.length];
+            parameters[0] = data.getPath();
+            parameters[1] = args[1];
+            parameters[2] = "scaling";
+            System.arraycopy(args, 3, parameters, 3, args.length - 3);
+            Quicksort.resetMetrics();
+            long startTime = System.nanoTime();
+            Sort algorithm = new Sort(parameters);
+            algorithm.sortFile();
+            algorithm.cleanUp();
+            long millis = Math.max(1, (System.nanoTime() - startTime)
+                / 1000000);
+            double megabytes = blocks * 4096 / 1e6;
+            System.out.printf("%6d  %7.0f  %8d  %6.1f  %11.2f  %12.2f%n",
+                blocks, megabytes, millis, megabytes * 1000 / millis,
+                (double)Quicksort.getRetrievalAttempts() / blocks,
+                (double)Quicksort.getStorageOperations() / blocks);
+            data.delete();
+        }
+    }
+}
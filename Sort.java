@@ -1,5 +1,9 @@
+import java.io.File;
 import java.io.IOException;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The Sort class
@@ -11,14 +15,35 @@ import java.util.Random;
  */
 public class Sort {
     private BufferPool bufferManager;
-    private int storageSize;
+    private MemorySort memorySort;
+    private ExternalMergeSort mergeSort;
+    private RadixSort radixSort;
+    private long storageSize;
+    private int maxDepth;
+    private int threads;
+    private int grain;
+    private boolean pinning;
+    private LatencyHistogram partitionTimer;
+    private LatencyHistogram insertionTimer;
+    private LatencyHistogram scratchTimer;
+    private LatencyHistogram heapTimer;
     private static final int SIZE_OF_BLOCK = 4096;
     private static final int SIZE_OF_DATA = 4;
     private static final int SORT_THRESHOLD = 20;
-    private static Random rng = new Random();
+    private static final int NINTHER_THRESHOLD = 1000;
+    private static final int PIVOT_PROBES = 3;
+    private static final int HEAP_ARITY = 8;
+    private static final int MAX_SCRATCH_RECORDS = 1 << 24;
 
     /**
-     * Constructor for sort class
+     * Constructor for sort class. With "-memory=bytes", a file that fits
+     * twice over in that budget is sorted in memory without the pool.
+     * Otherwise "-mode=merge" picks an external merge sort whose runs are
+     * the size of the pool, with run files in "-tmpdir=dir", and
+     * "-mode=radix" a two-pass radix sort on the key bytes through a
+     * temporary file in the same directory. Quicksort runs on "-threads=n"
+     * fork-join workers, which split partitions down to "-grain=records"
+     * before each sorts its piece alone.
      * 
      * @param parameters
      *            for sort
@@ -26,71 +51,278 @@ public class Sort {
      *             if error in sort
      */
     public Sort(String[] parameters) throws IOException {
+        RunOptions options = new RunOptions(parameters);
+        long fileLength = new File(parameters[0]).length();
+        if (MemorySort.fits(fileLength, options.getLong("memory", 0))) {
+            memorySort = new MemorySort(parameters[0]);
+            Quicksort.recordDetail("Sort mode", "in-memory");
+            return;
+        }
+        String mode = options.getString("mode", "quicksort");
+        Quicksort.recordDetail("Sort mode", mode);
+        File tempDirectory = new File(options.getString("tmpdir", System
+            .getProperty("java.io.tmpdir")));
+        if (mode.equals("merge")) {
+            mergeSort = new ExternalMergeSort(parameters[0], Integer.parseInt(
+                parameters[1]), tempDirectory);
+            return;
+        }
+        if (mode.equals("radix")) {
+            radixSort = new RadixSort(parameters[0], tempDirectory);
+            return;
+        }
+        if (!mode.equals("quicksort")) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        threads = options.getInt("threads", 1);
+        grain = Math.max(SORT_THRESHOLD, options.getInt("grain", 1 << 16));
+        if (threads > 1) {
+            Quicksort.recordDetail("Threads", String.valueOf(threads));
+        }
+        partitionTimer = MetricsRegistry.timer("partition");
+        insertionTimer = MetricsRegistry.timer("insertion sort");
+        scratchTimer = MetricsRegistry.timer("scratch sort");
+        heapTimer = MetricsRegistry.timer("heap sort");
         bufferManager = new BufferPool(parameters);
-        this.storageSize = bufferManager.getTotalBlockCount() * SIZE_OF_BLOCK
-            / SIZE_OF_DATA;
+        pinning = bufferManager.canPin(2 * Math.max(1, threads));
+        this.storageSize = (long)bufferManager.getTotalBlockCount()
+            * SIZE_OF_BLOCK / SIZE_OF_DATA;
+        this.maxDepth = depthLimit(storageSize);
+    }
+
+
+    /**
+     * Makes the call to quicksort, or to the in-memory, merge or radix sort
+     * 
+     * @throws IOException
+     *             if error in the in-memory, merge or radix sort
+     */
+    public void sortFile() throws IOException {
+        if (memorySort != null) {
+            memorySort.sortFile();
+            return;
+        }
+        if (mergeSort != null) {
+            mergeSort.sortFile();
+            return;
+        }
+        if (radixSort != null) {
+            radixSort.sortFile();
+            return;
+        }
+        if (threads > 1) {
+            ForkJoinPool workers = new ForkJoinPool(threads);
+            try {
+                workers.invoke(new PartitionTask(0, storageSize - 1,
+                    maxDepth));
+            }
+            finally {
+                workers.shutdown();
+            }
+            return;
+        }
+        performQuickSort(0, storageSize - 1, maxDepth);
     }
 
 
     /**
-     * Makes the call to quicksort
+     * Gets how many partition levels a range may take before it is
+     * heapsorted instead
+     * 
+     * @param size
+     *            the number of records in the range
+     * @return twice the base 2 logarithm of the size
      */
-    public void sortFile() {
-        performQuickSort(0, storageSize - 1);
+    private static int depthLimit(long size) {
+        return 2 * (64 - Long.numberOfLeadingZeros(Math.max(1, size)));
     }
 
 
     /**
-     * Does the main quicksort behavior
+     * Does the main quicksort behavior as an introsort. Keys equal to the
+     * pivot end up in the middle and are never visited again. Only the
+     * smaller side is recursed into and the larger side is looped on, so
+     * the stack stays within the logarithm of the range. A range still
+     * unsorted after depth partition levels is heapsorted, so bad pivots
+     * cannot make the sort quadratic.
      * 
      * @param start
      *            the index to start the sort
      * @param end
      *            the index to end the sort
+     * @param depth
+     *            how many more partition levels are allowed
      */
-    private void performQuickSort(int start, int end) {
-        if (checkUniformity(start, end)) {
-            return;
+    private void performQuickSort(long start, long end, int depth) {
+        while (end - start >= SORT_THRESHOLD) {
+            if (fitsInPool(start, end)) {
+                sortInScratch(start, end);
+                return;
+            }
+            if (depth-- == 0) {
+                performHeapSort(start, end);
+                return;
+            }
+            executeSwap(start, selectPivot(start, end));
+            long[] bounds = executePartition(start, end, maxDepth - depth
+                - 1);
+            if (bounds[0] - start < end - bounds[1]) {
+                performQuickSort(start, bounds[0], depth);
+                start = bounds[1];
+            }
+            else {
+                performQuickSort(bounds[1], end, depth);
+                end = bounds[0];
+            }
         }
-        if (end - start < SORT_THRESHOLD) {
+        if (start < end) {
             performInsertionSort(start, end);
         }
-        else {
-            if (start < end) {
-                executeSwap(end, selectRandomPivot(start, end));
-                int pivotLoc = executePartition(start, end);
-                performQuickSort(start, pivotLoc - 1);
-                performQuickSort(pivotLoc + 1, end);
-            }
-        }
     }
 
 
     /**
-     * Partitions the sub array
+     * Indicates if a range spans no more blocks than the pool can hold at
+     * once, so it can be sorted in a scratch array. The pool is asked at
+     * its current size on every partition step, so an adaptive pool that
+     * has grown or shrunk since the last step is taken into account.
+     * 
+     * @param start
+     *            the index to start
+     * @param end
+     *            the index to end
+     * @return true if the range fits
+     */
+    private boolean fitsInPool(long start, long end) {
+        long blocks = end / (SIZE_OF_BLOCK / SIZE_OF_DATA) - start
+            / (SIZE_OF_BLOCK / SIZE_OF_DATA) + 1;
+        return blocks <= bufferManager.getResidentCapacity() && end - start
+            < MAX_SCRATCH_RECORDS;
+    }
+
+
+    /**
+     * Sorts a range that fits in the pool in memory. The records are read
+     * into a scratch array once, a block per pool lookup, sorted there and
+     * written back once. Sorting the ints as plain signed values orders
+     * them by the key in their high 16 bits.
      * 
      * @param start
      *            the index to start
      * @param end
      *            the index to end
-     * @return int for partition result
-     */
-    private int executePartition(int start, int end) {
-        byte[] pivotValue = fetchRecord(end);
-        int i = start - 1;
-        for (int j = start; j <= end - 1; j++) {
-            byte[] current = fetchRecord(j);
-            if (compareRecords(current, pivotValue) <= 0) {
-                i++;
-                if (i != j) {
-                    byte[] iRecord = fetchRecord(i);
-                    executeSwap(i, j, iRecord, current);
+     */
+    private void sortInScratch(long start, long end) {
+        long startTime = scratchTimer != null ? System.nanoTime() : 0;
+        int count = (int)(end - start + 1);
+        int[] scratch = new int[count];
+        bufferManager.readRecords(start, scratch, count);
+        Arrays.sort(scratch);
+        bufferManager.writeRecords(start, scratch, count);
+        if (scratchTimer != null) {
+            scratchTimer.recordSince(startTime);
+        }
+    }
+
+
+    /**
+     * Partitions the sub array three ways (Bentley and McIlroy) around the
+     * pivot at start. Both ends are scanned toward the middle, keys equal
+     * to the pivot are parked at the outer ends as they are found, and
+     * they are swapped into the middle at the end. Each scan reads and
+     * swaps through a BlockCursor, so it looks up the pool once per block
+     * instead of once per record.
+     * 
+     * @param start
+     *            the index to start, holding the pivot
+     * @param end
+     *            the index to end
+     * @param level
+     *            how many partitions enclose this one, for the flight
+     *            recorder
+     * @return the last index of the smaller keys and the first index of the
+     *         larger keys
+     */
+    private long[] executePartition(long start, long end, int level) {
+        long startTime = partitionTimer != null ? System.nanoTime() : 0;
+        PartitionEvent event = new PartitionEvent();
+        event.begin();
+        int pivotKey = fetchRecord(start) >> 16;
+        long i = start;
+        long j = end + 1;
+        long p = start;
+        long q = end + 1;
+        BlockCursor leftCursor = new BlockCursor();
+        BlockCursor rightCursor = new BlockCursor();
+        try {
+            while (true) {
+                int left = leftCursor.read(++i);
+                while (left >> 16 < pivotKey && i < end) {
+                    left = leftCursor.read(++i);
+                }
+                int right = rightCursor.read(--j);
+                while (pivotKey < right >> 16 && j > start) {
+                    right = rightCursor.read(--j);
+                }
+                if (i == j && left >> 16 == pivotKey) {
+                    executeSwap(++p, i);
+                }
+                if (i >= j) {
+                    break;
+                }
+                leftCursor.write(i, right);
+                rightCursor.write(j, left);
+                if (right >> 16 == pivotKey) {
+                    executeSwap(++p, i);
+                }
+                if (left >> 16 == pivotKey) {
+                    executeSwap(--q, j);
                 }
             }
         }
-        byte[] recordAfterI = fetchRecord(i + 1);
-        executeSwap(i + 1, end, recordAfterI, pivotValue);
-        return i + 1;
+        finally {
+            leftCursor.release();
+            rightCursor.release();
+        }
+        long leftEquals = p - start + 1;
+        long rightEquals = end - q + 1;
+        swapRanges(start, j + 1 - Math.min(leftEquals, j - p), Math.min(
+            leftEquals, j - p));
+        swapRanges(j + 1, end + 1 - Math.min(rightEquals, q - j - 1), Math
+            .min(rightEquals, q - j - 1));
+        i = j + 1 + rightEquals;
+        j = j - leftEquals;
+        if (partitionTimer != null) {
+            partitionTimer.recordSince(startTime);
+        }
+        if (event.shouldCommit()) {
+            event.start = start;
+            event.size = end - start + 1;
+            event.depth = level;
+            event.pivotKey = pivotKey;
+            event.smaller = j - start + 1;
+            event.larger = end - i + 1;
+            event.commit();
+        }
+        return new long[] { j, i };
+    }
+
+
+    /**
+     * Swaps two non-overlapping runs of records of the same length, one
+     * pair at a time
+     * 
+     * @param first
+     *            the first index of one run
+     * @param second
+     *            the first index of the other run
+     * @param count
+     *            how many records each run holds
+     */
+    private void swapRanges(long first, long second, long count) {
+        for (long k = 0; k < count; k++) {
+            executeSwap(first + k, second + k);
+        }
     }
 
 
@@ -102,54 +334,191 @@ public class Sort {
      * @param end
      *            the index to end
      */
-    private void performInsertionSort(int start, int end) {
-        for (int i = start + 1; i <= end; i++) {
-            int j = i - 1;
-            byte[] recordToInsert = fetchRecord(i);
-            byte[] comparisonRecord = fetchRecord(j);
-            while (j >= start && compareRecords(comparisonRecord,
-                recordToInsert) > 0) {
-                executeSwap(j, j + 1, comparisonRecord, recordToInsert);
-                j--;
-                if (j >= 0)
-                    comparisonRecord = fetchRecord(j);
+    private void performInsertionSort(long start, long end) {
+        long startTime = insertionTimer != null ? System.nanoTime() : 0;
+        for (long i = start + 1; i <= end; i++) {
+            int recordToInsert = fetchRecord(i);
+            long j = i - 1;
+            int comparisonRecord = fetchRecord(j);
+            while (compareRecords(comparisonRecord, recordToInsert) > 0) {
+                bufferManager.writeRecord(j + 1, comparisonRecord);
+                if (--j < start) {
+                    break;
+                }
+                comparisonRecord = fetchRecord(j);
             }
+            if (j + 1 != i) {
+                bufferManager.writeRecord(j + 1, recordToInsert);
+            }
+        }
+        if (insertionTimer != null) {
+            insertionTimer.recordSince(startTime);
         }
     }
 
 
     /**
-     * Checks for uniformity
+     * Finds pivot for quicksort. The range is cut into three parts, or nine
+     * for large ranges, and a random record is sampled from each. The pivot
+     * is the median of the three samples, or the median of three medians
+     * (Tukey's ninther). A sample whose block is not in the pool is
+     * redrawn a few times within its part, so pivot selection rarely
+     * causes a read of its own.
      * 
      * @param start
      *            the index to start
      * @param end
      *            the index to end
-     * @return true if uniform, false if not
+     * @return the pivot index
      */
-    private boolean checkUniformity(int start, int end) {
-        byte[] first = fetchRecord(start);
-        for (int i = start + 1; i <= end; i++) {
-            byte[] current = fetchRecord(i);
-            if (compareRecords(first, current) != 0) {
-                return false;
-            }
+    private long selectPivot(long start, long end) {
+        if (end - start < NINTHER_THRESHOLD) {
+            return medianOfThree(start, end, 3, 0);
         }
-        return true;
+        long first = medianOfThree(start, end, 9, 0);
+        long second = medianOfThree(start, end, 9, 3);
+        long third = medianOfThree(start, end, 9, 6);
+        return medianIndex(first, second, third);
     }
 
 
     /**
-     * Finds pivot for quicksort
+     * Samples three consecutive parts of a range and gets the median
+     * 
+     * @param start
+     *            the index to start
+     * @param end
+     *            the index to end
+     * @param parts
+     *            how many equal parts the range is cut into
+     * @param firstPart
+     *            the first of the three parts to sample
+     * @return the index of the median sample
+     */
+    private long medianOfThree(
+        long start,
+        long end,
+        int parts,
+        int firstPart) {
+        return medianIndex(sample(start, end, parts, firstPart), sample(start,
+            end, parts, firstPart + 1), sample(start, end, parts, firstPart
+                + 2));
+    }
+
+
+    /**
+     * Picks a random record within one part of a range, preferring records
+     * whose block is already in the pool
+     * 
+     * @param start
+     *            the index to start
+     * @param end
+     *            the index to end
+     * @param parts
+     *            how many equal parts the range is cut into
+     * @param part
+     *            which part to sample
+     * @return the index of the sample
+     */
+    private long sample(long start, long end, int parts, int part) {
+        long size = end - start + 1;
+        long low = start + size * part / parts;
+        long high = start + size * (part + 1) / parts;
+        long idx = ThreadLocalRandom.current().nextLong(low, high);
+        for (int probe = 1; probe < PIVOT_PROBES && !bufferManager
+            .isResident(idx); probe++) {
+            idx = ThreadLocalRandom.current().nextLong(low, high);
+        }
+        return idx;
+    }
+
+
+    /**
+     * Gets which of three records holds the median key
+     * 
+     * @param first
+     *            the index of the first record
+     * @param second
+     *            the index of the second record
+     * @param third
+     *            the index of the third record
+     * @return the index of the median
+     */
+    private long medianIndex(long first, long second, long third) {
+        int a = fetchRecord(first) >> 16;
+        int b = fetchRecord(second) >> 16;
+        int c = fetchRecord(third) >> 16;
+        if (a < b) {
+            return b < c ? second : (a < c ? third : first);
+        }
+        return a < c ? first : (b < c ? third : second);
+    }
+
+
+    /**
+     * Heapsorts a range, used when partitioning goes too deep. The heap is
+     * 8-ary, so a node's children sit next to each other, usually in one
+     * block, and the heap is only a third as deep as a binary one. Records
+     * are moved down into the hole instead of swapped.
      * 
      * @param start
      *            the index to start
      * @param end
      *            the index to end
-     * @return the pivot index
      */
-    private int selectRandomPivot(int start, int end) {
-        return rng.nextInt(end - start + 1) + start;
+    private void performHeapSort(long start, long end) {
+        long startTime = heapTimer != null ? System.nanoTime() : 0;
+        long size = end - start + 1;
+        for (long node = (size - 2) / HEAP_ARITY; node >= 0; node--) {
+            siftDown(start, node, size, fetchRecord(start + node));
+        }
+        for (long last = size - 1; last > 0; last--) {
+            int top = fetchRecord(start);
+            siftDown(start, 0, last, fetchRecord(start + last));
+            bufferManager.writeRecord(start + last, top);
+        }
+        if (heapTimer != null) {
+            heapTimer.recordSince(startTime);
+        }
+    }
+
+
+    /**
+     * Places a record in a max-heap, starting from a hole at a node and
+     * moving larger children up until the record fits
+     * 
+     * @param base
+     *            the index of the heap's root
+     * @param node
+     *            the hole, relative to the root
+     * @param size
+     *            how many records the heap holds
+     * @param record
+     *            the record to place
+     */
+    private void siftDown(long base, long node, long size, int record) {
+        while (true) {
+            long firstChild = node * HEAP_ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            long largest = firstChild;
+            int largestRecord = fetchRecord(base + firstChild);
+            long lastChild = Math.min(size - 1, firstChild + HEAP_ARITY - 1);
+            for (long child = firstChild + 1; child <= lastChild; child++) {
+                int childRecord = fetchRecord(base + child);
+                if (compareRecords(childRecord, largestRecord) > 0) {
+                    largest = child;
+                    largestRecord = childRecord;
+                }
+            }
+            if (compareRecords(largestRecord, record) <= 0) {
+                break;
+            }
+            bufferManager.writeRecord(base + node, largestRecord);
+            node = largest;
+        }
+        bufferManager.writeRecord(base + node, record);
     }
 
 
@@ -158,28 +527,24 @@ public class Sort {
      * 
      * @param idx
      *            the index to fetch from
-     * @return byte array of data
+     * @return the record, key in the high 16 bits
      */
-    private byte[] fetchRecord(int idx) {
-        byte[] dataBytes = new byte[SIZE_OF_DATA];
-        bufferManager.readData(dataBytes, SIZE_OF_DATA, idx * SIZE_OF_DATA);
-        return dataBytes;
+    private int fetchRecord(long idx) {
+        return bufferManager.readRecord(idx);
     }
 
 
     /**
-     * Compares two arrays
+     * Compares the keys of two records
      * 
      * @param firstRecord
-     *            first array to compare
+     *            first record to compare
      * @param secondRecord
-     *            second array to compare
+     *            second record to compare
      * @return int signaling comparison results
      */
-    private int compareRecords(byte[] firstRecord, byte[] secondRecord) {
-        int num1 = (firstRecord[0] << 8) | (firstRecord[1] & 0xFF);
-        int num2 = (secondRecord[0] << 8) | (secondRecord[1] & 0xFF);
-        return Integer.compare(num1, num2);
+    private int compareRecords(int firstRecord, int secondRecord) {
+        return Integer.compare(firstRecord >> 16, secondRecord >> 16);
     }
 
 
@@ -191,19 +556,17 @@ public class Sort {
      * @param idxTwo
      *            index of second records
      * @param firstRecord
-     *            first data set
+     *            record at the first index
      * @param secondRecord
-     *            second data set
+     *            record at the second index
      */
     private void executeSwap(
-        int idxOne,
-        int idxTwo,
-        byte[] firstRecord,
-        byte[] secondRecord) {
-        bufferManager.writeData(secondRecord, SIZE_OF_DATA, idxOne
-            * SIZE_OF_DATA);
-        bufferManager.writeData(firstRecord, SIZE_OF_DATA, idxTwo
-            * SIZE_OF_DATA);
+        long idxOne,
+        long idxTwo,
+        int firstRecord,
+        int secondRecord) {
+        bufferManager.writeRecord(idxOne, secondRecord);
+        bufferManager.writeRecord(idxTwo, firstRecord);
     }
 
 
@@ -215,11 +578,8 @@ public class Sort {
      * @param idxTwo
      *            the index for the second set of records
      */
-    private void executeSwap(int idxOne, int idxTwo) {
-        byte[] recordOne = fetchRecord(idxOne);
-        byte[] recordTwo = fetchRecord(idxTwo);
-        bufferManager.writeData(recordTwo, SIZE_OF_DATA, idxOne * SIZE_OF_DATA);
-        bufferManager.writeData(recordOne, SIZE_OF_DATA, idxTwo * SIZE_OF_DATA);
+    private void executeSwap(long idxOne, long idxTwo) {
+        bufferManager.swapRecords(idxOne, idxTwo);
     }
 
 
@@ -230,6 +590,153 @@ public class Sort {
      *             if error in cleaning the BufferPool
      */
     public void cleanUp() throws IOException {
-        bufferManager.purge();
+        if (bufferManager != null) {
+            bufferManager.purge();
+            bufferManager.close();
+        }
+    }
+
+    /**
+     * One partition step of the parallel quicksort. A range that fits in
+     * the pool is sorted in a scratch array. Other ranges above the grain
+     * are partitioned and both sides forked; smaller ones are sorted by the
+     * sequential quicksort. The two sides never share a record, so the
+     * workers only meet inside the pool when their ranges share a block.
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private class PartitionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private long start;
+        private long end;
+        private int depth;
+
+        /**
+         * Constructor for the PartitionTask class
+         *
+         * @param start
+         *            the index to start the sort
+         * @param end
+         *            the index to end the sort
+         * @param depth
+         *            how many more partition levels are allowed
+         */
+        PartitionTask(long start, long end, int depth) {
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+        }
+
+
+        @Override
+        protected void compute() {
+            if (end - start >= SORT_THRESHOLD && fitsInPool(start, end)) {
+                sortInScratch(start, end);
+                return;
+            }
+            if (end - start < grain || depth == 0) {
+                performQuickSort(start, end, depth);
+                return;
+            }
+            executeSwap(start, selectPivot(start, end));
+            long[] bounds = executePartition(start, end, maxDepth - depth);
+            invokeAll(new PartitionTask(start, bounds[0], depth - 1),
+                new PartitionTask(bounds[1], end, depth - 1));
+        }
+    }
+
+    /**
+     * A scan's position in the pool. The block under the cursor stays
+     * pinned while the scan is in it, so its records are read and written
+     * without a pool lookup each. When the pool cannot spare a frame per
+     * cursor for every thread, or is memory mapped, the cursor goes
+     * through the pool for every record instead.
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private class BlockCursor {
+        private BufferPool.PinnedBlock block;
+        private boolean written;
+
+        /**
+         * Reads a record
+         *
+         * @param idx
+         *            the index of the record
+         * @return the record, key in the high 16 bits
+         */
+        int read(long idx) {
+            if (!pinning) {
+                return fetchRecord(idx);
+            }
+            return moveTo(idx).readRecord(slotOf(idx));
+        }
+
+
+        /**
+         * Writes a record, marking the pinned block dirty on its first
+         * write
+         *
+         * @param idx
+         *            the index of the record
+         * @param record
+         *            the record to write
+         */
+        void write(long idx, int record) {
+            if (!pinning) {
+                bufferManager.writeRecord(idx, record);
+                return;
+            }
+            moveTo(idx).writeRecord(slotOf(idx), record);
+            if (!written) {
+                bufferManager.markDirty(block);
+                written = true;
+            }
+        }
+
+
+        /**
+         * Unpins the block under the cursor, if any
+         */
+        void release() {
+            if (block != null) {
+                bufferManager.unpin(block);
+                block = null;
+            }
+        }
+
+
+        /**
+         * Pins the block holding a record, releasing the previous one
+         *
+         * @param idx
+         *            the index of the record
+         * @return the pinned block
+         */
+        private BufferPool.PinnedBlock moveTo(long idx) {
+            int blockIndex = (int)(idx / (SIZE_OF_BLOCK / SIZE_OF_DATA));
+            if (block == null || block.getBlockIndex() != blockIndex) {
+                release();
+                block = bufferManager.pin(blockIndex);
+                written = false;
+            }
+            return block;
+        }
+
+
+        /**
+         * Gives a record's position within its block
+         *
+         * @param idx
+         *            the index of the record
+         * @return the slot
+         */
+        private int slotOf(long idx) {
+            return (int)(idx % (SIZE_OF_BLOCK / SIZE_OF_DATA));
+        }
     }
 }
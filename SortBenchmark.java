@@ -0,0 +1,56 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Compares sort modes on the same input. A fresh copy of the data file is
+ * sorted once with each of the comma separated modes, and the wall-clock
+ * time and block reads and writes are printed for each. Any further
+ * "-name=value" options are passed on to every sort.
+ *
+ * Usage: java SortBenchmark {data-file} {numb-buffers} {mode,mode,...}
+ * [options]
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class SortBenchmark {
+
+    /**
+     * Main method for the class
+     *
+     * @param args
+     *            command line arguments
+     * @throws IOException
+     *             if error in copying or sorting the file
+     */
+    public static void main(String[] args) throws IOException {
+        File source = new File(args[0]);
+        File copy = File.createTempFile("bench", ".bin", source
+            .getAbsoluteFile().getParentFile());
+        copy.deleteOnExit();
+        System.out.println("Mode        Time(ms)   Reads  Writes");
+        for (String mode : args[2].split(",")) {
+            Files.copy(source.toPath(), copy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+            String[] parameters = new String[args.length + 1];
+            parameters[0] = copy.getPath();
+            parameters[1] = args[1];
+            parameters[2] = "benchmark";
+            parameters[3] = "-mode=" + mode;
+            System.arraycopy(args, 3, parameters, 4, args.length - 3);
+            Quicksort.resetMetrics();
+            long startTime = System.nanoTime();
+            Sort algorithm = new Sort(parameters);
+            algorithm.sortFile();
+            algorithm.cleanUp();
+            long millis = (System.nanoTime() - startTime) / 1000000;
+            System.out.printf("%-10s  %8d  %6d  %6d%n", mode, millis,
+                Quicksort.getRetrievalAttempts(), Quicksort
+                    .getStorageOperations());
+        }
+        copy.delete();
+    }
+}
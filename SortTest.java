@@ -0,0 +1,245 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/**
+ * Sorts generated files end to end with each sort mode and pool option,
+ * and checks each result with CheckFile and against the input's records
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class SortTest extends TestCase {
+    private static final int BLOCKS = 100;
+    private File data;
+    private CheckFile fileChecker;
+
+    /**
+     * Sets up the file to sort
+     *
+     * @throws IOException
+     *             if error in creating the file
+     */
+    public void setUp() throws IOException {
+        data = File.createTempFile("sort", ".bin");
+        fileChecker = new CheckFile();
+    }
+
+
+    /**
+     * Deletes the file and its stats
+     */
+    public void tearDown() {
+        data.delete();
+        new File(data.getPath() + ".stats").delete();
+    }
+
+
+    /**
+     * Sorts with each eviction policy
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testEachPolicy() throws Exception {
+        for (String policy : new String[] { "lru", "clock", "2q", "arc",
+            "lruk" }) {
+            checkSort('b', "10", "-policy=" + policy);
+        }
+    }
+
+
+    /**
+     * Sorts with several threads and each eviction policy
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testThreads() throws Exception {
+        for (String policy : new String[] { "lru", "clock", "2q", "arc",
+            "lruk" }) {
+            checkSort('b', "24", "-threads=3", "-grain=4096", "-policy="
+                + policy);
+        }
+    }
+
+
+    /**
+     * Sorts with more threads than the pool has frames per segment. Each
+     * thread used to pin a block while copying its records, so a segment of
+     * one frame could be pinned by one thread when another missed in it.
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testThreadsWithFewBuffers() throws Exception {
+        String[][] runs = { { "16", "-threads=4" }, { "10", "-threads=4" }, {
+            "2", "-threads=3" }, { "1", "-threads=2" } };
+        for (int round = 0; round < 3; round++) {
+            for (String[] run : runs) {
+                checkSort('b', run[0], run[1]);
+            }
+        }
+    }
+
+
+    /**
+     * Sorts through the memory-mapped backend
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testMmapBackend() throws Exception {
+        checkSort('b', "10", "-backend=mmap");
+    }
+
+
+    /**
+     * Sorts with sequential read-ahead, also in a striped pool where each
+     * segment's sweeps skip the other segments' stripes
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testReadAhead() throws Exception {
+        checkSort('b', "10", "-readahead=4");
+        checkSort('a', "10", "-readahead=16");
+        checkSort('b', "40", "-threads=2", "-stripes=2", "-readahead=4");
+    }
+
+
+    /**
+     * Sorts with background write-back of dirty frames
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testWriteBack() throws Exception {
+        checkSort('b', "10", "-dirtyhigh=0.5", "-dirtylow=0.25");
+        checkSort('b', "40", "-dirtyhigh=0.1");
+    }
+
+
+    /**
+     * Sorts files small enough for the in-memory path
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testInMemoryMode() throws Exception {
+        checkSort('b', "10", "-memory=" + 2 * BLOCKS * 4096);
+        checkSort('a', "10", "-memory=" + 2 * BLOCKS * 4096);
+    }
+
+
+    /**
+     * Sorts with the external merge sort, with runs of several sizes
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testMergeMode() throws Exception {
+        String tmpdir = "-tmpdir=" + data.getParent();
+        checkSort('b', "10", "-mode=merge", tmpdir);
+        checkSort('b', "3", "-mode=merge", tmpdir);
+        checkSort('a', "1", "-mode=merge", tmpdir);
+    }
+
+
+    /**
+     * Sorts with the radix sort
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testRadixMode() throws Exception {
+        String tmpdir = "-tmpdir=" + data.getParent();
+        checkSort('b', "10", "-mode=radix", tmpdir);
+        checkSort('a', "10", "-mode=radix", tmpdir);
+    }
+
+
+    /**
+     * Sorts with an adaptive pool that starts below its byte budget
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testAdaptivePool() throws Exception {
+        checkSort('b', "4", "-poolbytes=" + 40 * 4096);
+        checkSort('b', "4", "-poolbytes=" + 40 * 4096, "-threads=2");
+    }
+
+
+    /**
+     * Sorts while tracing block lookups and checks that the trace was
+     * written
+     *
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    public void testTrace() throws Exception {
+        File trace = new File(data.getPath() + ".trace");
+        try {
+            checkSort('a', "10", "-trace=" + trace.getPath());
+            assertTrue(trace.length() > 8);
+        }
+        finally {
+            trace.delete();
+        }
+    }
+
+
+    /**
+     * Generates a file, sorts it and checks that the result is sorted and
+     * holds the same records
+     *
+     * @param kind
+     *            'b' for binary or 'a' for ASCII records
+     * @param buffers
+     *            the number of buffers
+     * @param options
+     *            the options after the buffer count
+     * @throws Exception
+     *             if error in sorting or checking the file
+     */
+    private void checkSort(char kind, String buffers, String... options)
+        throws Exception {
+        new FileGenerator().generateFile(new String[] { "-" + kind, data
+            .getPath(), String.valueOf(BLOCKS) });
+        int[] expected = readRecords();
+        Arrays.sort(expected);
+        String[] args = new String[options.length + 3];
+        args[0] = data.getPath();
+        args[1] = buffers;
+        args[2] = data.getPath() + ".stats";
+        System.arraycopy(options, 0, args, 3, options.length);
+        Sort algorithm = new Sort(args);
+        algorithm.sortFile();
+        algorithm.cleanUp();
+        String run = buffers + " " + String.join(" ", options);
+        assertTrue(run, fileChecker.checkFile(data.getPath()));
+        int[] actual = readRecords();
+        Arrays.sort(actual);
+        assertTrue(run, Arrays.equals(expected, actual));
+    }
+
+
+    /**
+     * Reads every record of the file
+     *
+     * @return the records
+     * @throws IOException
+     *             if error in reading the file
+     */
+    private int[] readRecords() throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(data.toPath()));
+        int[] records = new int[bytes.capacity() / 4];
+        bytes.asIntBuffer().get(records);
+        return records;
+    }
+}
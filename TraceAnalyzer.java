@@ -0,0 +1,312 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.TreeSet;
+
+/**
+ * Replays a BlockTrace offline. The first part is the LRU miss-ratio curve
+ * for every pool size at once, from a single pass that finds the stack
+ * distance of each lookup (Mattson et al.). A Fenwick tree over the lookup
+ * times counts the distinct blocks touched since a block's previous lookup
+ * in O(log n). The second part replays the trace through each eviction
+ * policy at a few pool sizes and compares block reads and writes.
+ *
+ * The trace comes from one run. Pivot sampling and the scratch-array path
+ * depend on the pool, so other pool sizes are predictions, not
+ * measurements. In the policy replay a run of lookups of one block counts
+ * as at most three policy hits, which is enough to move a block between
+ * the lists of 2q, arc and lruk. A run of zero lookups is a write through
+ * a pinned block; it marks the block dirty if it is resident and is not
+ * counted as a lookup.
+ *
+ * Usage: java TraceAnalyzer {trace-file} [-sizes=n,n,...]
+ * [-policies=name,name,...]
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class TraceAnalyzer {
+    private static final String ALL_POLICIES = "lru,clock,2q,arc,lruk";
+    private int totalBlocks;
+    private int runCount;
+    private int[] runBlocks;
+    private long[] runLookups;
+    private BitSet runWrote;
+    private long lookups;
+    private int distinctBlocks;
+
+    /**
+     * Main method for the class
+     *
+     * @param args
+     *            command line arguments
+     * @throws IOException
+     *             if error in reading the trace
+     */
+    public static void main(String[] args) throws IOException {
+        String sizes = null;
+        String policies = ALL_POLICIES;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("-sizes=")) {
+                sizes = args[i].substring(7);
+            }
+            else if (args[i].startsWith("-policies=")) {
+                policies = args[i].substring(10);
+            }
+            else {
+                throw new IllegalArgumentException("Unknown option: "
+                    + args[i]);
+            }
+        }
+        TraceAnalyzer analyzer = new TraceAnalyzer(args[0]);
+        long[] missCurve = analyzer.missRatioCurve();
+        System.out.printf("Lookups: %d  Runs: %d  Distinct blocks: %d%n%n",
+            analyzer.lookups, analyzer.runCount, analyzer.distinctBlocks);
+        System.out.println("LRU miss-ratio curve");
+        System.out.println(" Frames      Misses  Miss ratio");
+        int[] compared = analyzer.comparisonSizes(sizes);
+        TreeSet<Integer> points = new TreeSet<Integer>();
+        for (long frames = 1; frames < missCurve.length; frames *= 2) {
+            points.add((int)frames);
+        }
+        points.add(missCurve.length - 1);
+        for (int frames : compared) {
+            points.add(Math.min(frames, missCurve.length - 1));
+        }
+        for (int frames : points) {
+            analyzer.printCurvePoint(missCurve, frames);
+        }
+        String[] names = policies.split(",");
+        System.out.printf("%nPolicy comparison, reads/writes%n Frames");
+        for (String name : names) {
+            System.out.printf("  %17s", name);
+        }
+        System.out.println();
+        for (int frames : compared) {
+            System.out.printf("%7d", frames);
+            for (String name : names) {
+                long[] result = analyzer.replay(EvictionPolicy.forName(name,
+                    frames), frames);
+                System.out.printf("  %17s", result[0] + "/" + result[1]);
+            }
+            System.out.println();
+        }
+    }
+
+
+    /**
+     * Constructor for the TraceAnalyzer class, which loads the trace
+     *
+     * @param fileName
+     *            the trace file
+     * @throws IOException
+     *             if error in reading the trace
+     */
+    public TraceAnalyzer(String fileName) throws IOException {
+        runBlocks = new int[1 << 16];
+        runLookups = new long[1 << 16];
+        runWrote = new BitSet();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(fileName), 1 << 16))) {
+            if (in.readInt() != BlockTrace.MAGIC) {
+                throw new IOException(fileName + " is not a block trace");
+            }
+            totalBlocks = in.readInt();
+            long block = 0;
+            while (true) {
+                long zigzag;
+                try {
+                    zigzag = BlockTrace.readVarint(in);
+                }
+                catch (EOFException e) {
+                    break;
+                }
+                block += (zigzag >>> 1) ^ -(zigzag & 1);
+                long countAndFlag = BlockTrace.readVarint(in);
+                if (runCount == runBlocks.length) {
+                    runBlocks = Arrays.copyOf(runBlocks, runCount * 2);
+                    runLookups = Arrays.copyOf(runLookups, runCount * 2);
+                }
+                runBlocks[runCount] = (int)block;
+                runLookups[runCount] = countAndFlag >>> 1;
+                if ((countAndFlag & 1) != 0) {
+                    runWrote.set(runCount);
+                }
+                lookups += countAndFlag >>> 1;
+                runCount++;
+            }
+        }
+    }
+
+
+    /**
+     * Finds the LRU miss count of every pool size in one pass
+     *
+     * @return the misses for each pool size, indexed by frames, up to the
+     *         number of distinct blocks
+     */
+    public long[] missRatioCurve() {
+        int[] lastRun = new int[totalBlocks];
+        Arrays.fill(lastRun, -1);
+        long[] tree = new long[runCount + 1];
+        long[] atDistance = new long[totalBlocks + 2];
+        long coldMisses = 0;
+        distinctBlocks = 0;
+        for (int t = 0; t < runCount; t++) {
+            int block = runBlocks[t];
+            if (runLookups[t] == 0) {
+                continue;
+            }
+            if (lastRun[block] < 0) {
+                coldMisses++;
+                distinctBlocks++;
+            }
+            else {
+                int distance = (int)(prefixSum(tree, t) - prefixSum(tree,
+                    lastRun[block] + 1)) + 1;
+                atDistance[distance]++;
+                addAt(tree, lastRun[block], -1);
+            }
+            addAt(tree, t, 1);
+            lastRun[block] = t;
+        }
+        long[] misses = new long[distinctBlocks + 1];
+        long farther = 0;
+        for (int frames = distinctBlocks; frames >= 1; frames--) {
+            misses[frames] = coldMisses + farther;
+            farther += atDistance[frames];
+        }
+        misses[0] = lookups;
+        return misses;
+    }
+
+
+    /**
+     * Replays the trace through a policy with a fixed number of frames
+     *
+     * @param policy
+     *            the eviction policy, sized for the frames
+     * @param frames
+     *            the pool size
+     * @return block reads then block writes, counting the final purge
+     */
+    public long[] replay(EvictionPolicy policy, int frames) {
+        PageTable table = new PageTable(frames);
+        int[] blockOf = new int[frames];
+        boolean[] dirty = new boolean[frames];
+        int used = 0;
+        long reads = 0;
+        long writes = 0;
+        for (int t = 0; t < runCount; t++) {
+            int block = runBlocks[t];
+            int frame = table.get(block);
+            long hits = runLookups[t] - 1;
+            if (runLookups[t] == 0) {
+                if (frame != PageTable.ABSENT) {
+                    dirty[frame] = true;
+                }
+                continue;
+            }
+            if (frame == PageTable.ABSENT) {
+                reads++;
+                if (used < frames) {
+                    frame = used++;
+                }
+                else {
+                    frame = policy.selectVictim(block);
+                    table.remove(blockOf[frame]);
+                    if (dirty[frame]) {
+                        writes++;
+                    }
+                }
+                table.put(block, frame);
+                blockOf[frame] = block;
+                dirty[frame] = false;
+                policy.recordInsert(frame, block);
+            }
+            else {
+                hits++;
+            }
+            for (long h = 0; h < Math.min(hits, 3); h++) {
+                policy.recordHit(frame);
+            }
+            dirty[frame] |= runWrote.get(t);
+        }
+        for (int f = 0; f < used; f++) {
+            writes += dirty[f] ? 1 : 0;
+        }
+        return new long[] { reads, writes };
+    }
+
+
+    /**
+     * Prints one point of the miss-ratio curve
+     *
+     * @param misses
+     *            the misses for each pool size
+     * @param frames
+     *            the pool size
+     */
+    private void printCurvePoint(long[] misses, int frames) {
+        System.out.printf("%7d  %10d  %10.4f%n", frames, misses[frames],
+            (double)misses[frames] / Math.max(1, lookups));
+    }
+
+
+    /**
+     * Gets the pool sizes to compare policies at
+     *
+     * @param sizes
+     *            comma separated sizes, or null for seven sizes from 1/64
+     *            of the distinct blocks up to all of them
+     * @return the sizes
+     */
+    private int[] comparisonSizes(String sizes) {
+        if (sizes != null) {
+            return Arrays.stream(sizes.split(",")).mapToInt(Integer::parseInt)
+                .toArray();
+        }
+        return Arrays.stream(new int[] { 64, 32, 16, 8, 4, 2, 1 }).map(
+            d -> Math.max(1, distinctBlocks / d)).distinct().toArray();
+    }
+
+
+    /**
+     * Sums the first entries of a Fenwick tree
+     *
+     * @param tree
+     *            the tree
+     * @param count
+     *            how many entries to sum
+     * @return the sum
+     */
+    private static long prefixSum(long[] tree, int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+
+    /**
+     * Adds to one entry of a Fenwick tree
+     *
+     * @param tree
+     *            the tree
+     * @param index
+     *            the entry, from 0
+     * @param delta
+     *            the amount to add
+     */
+    private static void addAt(long[] tree, int index, long delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
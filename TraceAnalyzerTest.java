@@ -0,0 +1,89 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests BlockTrace and TraceAnalyzer on small traces
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class TraceAnalyzerTest extends TestCase {
+    private File traceFile;
+
+    /**
+     * Sets up the trace file
+     *
+     * @throws IOException
+     *             if error in creating the file
+     */
+    public void setUp() throws IOException {
+        traceFile = File.createTempFile("trace", ".bin");
+    }
+
+
+    /**
+     * Deletes the trace file
+     */
+    public void tearDown() {
+        traceFile.delete();
+    }
+
+
+    /**
+     * Checks the one-pass LRU miss-ratio curve against replaying the trace
+     * through an LRU pool of every size
+     *
+     * @throws IOException
+     *             if error in writing or reading the trace
+     */
+    public void testMissRatioCurveMatchesLruReplay() throws IOException {
+        BlockTrace trace = new BlockTrace(traceFile.getPath(), 64);
+        Random random = new Random(3114);
+        int block = 0;
+        for (int i = 0; i < 20000; i++) {
+            block = random.nextInt(4) == 0
+                ? random.nextInt(64)
+                : Math.max(0, Math.min(63, block + random.nextInt(5) - 2));
+            trace.record(block, random.nextInt(8) == 0);
+        }
+        trace.close();
+        TraceAnalyzer analyzer = new TraceAnalyzer(traceFile.getPath());
+        long[] misses = analyzer.missRatioCurve();
+        assertEquals(20000, misses[0]);
+        assertEquals(65, misses.length);
+        for (int frames = 1; frames < misses.length; frames++) {
+            long[] result = analyzer.replay(new LruPolicy(frames), frames);
+            assertEquals("frames " + frames, misses[frames], result[0]);
+        }
+        assertEquals(64, misses[64]);
+    }
+
+
+    /**
+     * Checks that a write through a pinned block marks the block dirty
+     * without counting another lookup
+     *
+     * @throws IOException
+     *             if error in writing or reading the trace
+     */
+    public void testMarkWrittenIsNotALookup() throws IOException {
+        BlockTrace trace = new BlockTrace(traceFile.getPath(), 4);
+        trace.record(1, false);
+        trace.markWritten(1);
+        trace.record(2, false);
+        trace.markWritten(1);
+        trace.record(3, false);
+        trace.close();
+        assertEquals(3, trace.getLookups());
+        TraceAnalyzer analyzer = new TraceAnalyzer(traceFile.getPath());
+        long[] misses = analyzer.missRatioCurve();
+        assertEquals(3, misses[0]);
+        assertEquals(3, misses[3]);
+        long[] result = analyzer.replay(new LruPolicy(3), 3);
+        assertEquals(3, result[0]);
+        assertEquals(1, result[1]);
+    }
+}
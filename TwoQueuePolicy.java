@@ -0,0 +1,138 @@
+/**
+ * Full 2Q eviction (Johnson and Shasha). New blocks enter the A1in FIFO,
+ * where further hits are ignored, so a block touched by one sequential
+ * sweep leaves quickly. Blocks evicted from A1in are remembered in the
+ * A1out ghost queue, and a block that misses while remembered there is
+ * promoted into the Am LRU list. A pinned frame leaves its queue but keeps
+ * its place in A1in or Am, and goes back to the head of the same queue.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class TwoQueuePolicy implements EvictionPolicy {
+    private static final byte NONE = 0;
+    private static final byte IN_A1 = 1;
+    private static final byte IN_AM = 2;
+    private FrameList a1in;
+    private FrameList am;
+    private DoublyLinkedList<Integer> a1out;
+    private HashTable<Integer, DualNode<Integer>> ghostMap;
+    private byte[] queueOf;
+    private int[] blockOf;
+    private int inLimit;
+    private int outLimit;
+
+    /**
+     * Constructor for the TwoQueuePolicy class
+     *
+     * @param capacity
+     *            the number of frames in the pool
+     */
+    public TwoQueuePolicy(int capacity) {
+        a1in = new FrameList(capacity);
+        am = new FrameList(capacity);
+        a1out = new DoublyLinkedList<>();
+        ghostMap = new HashTable<>();
+        queueOf = new byte[capacity];
+        blockOf = new int[capacity];
+        inLimit = Math.max(1, capacity / 4);
+        outLimit = Math.max(1, capacity / 2);
+    }
+
+
+    @Override
+    public String getName() {
+        return "2q";
+    }
+
+
+    @Override
+    public void recordHit(int frame) {
+        if (queueOf[frame] == IN_AM) {
+            am.elevate(frame);
+        }
+    }
+
+
+    @Override
+    public void recordInsert(int frame, int blockIndex) {
+        blockOf[frame] = blockIndex;
+        DualNode<Integer> ghost = ghostMap.delete(blockIndex);
+        if (ghost != null) {
+            a1out.deleteNode(ghost);
+            am.prependNode(frame);
+            queueOf[frame] = IN_AM;
+        }
+        else {
+            a1in.prependNode(frame);
+            queueOf[frame] = IN_A1;
+        }
+    }
+
+
+    @Override
+    public void recordPin(int frame) {
+        queueFor(frame).deleteNode(frame);
+    }
+
+
+    @Override
+    public void recordUnpin(int frame, int blockIndex) {
+        queueFor(frame).prependNode(frame);
+    }
+
+
+    @Override
+    public int selectVictim(int incomingBlock) {
+        if (a1in.listSize() > inLimit || am.listIsEmpty()) {
+            int frame = a1in.fetchTail();
+            if (frame == FrameList.NONE) {
+                return -1;
+            }
+            remove(frame);
+            remember(blockOf[frame]);
+            return frame;
+        }
+        int frame = am.fetchTail();
+        remove(frame);
+        return frame;
+    }
+
+
+    @Override
+    public void remove(int frame) {
+        if (queueOf[frame] != NONE && queueFor(frame).hasFrame(frame)) {
+            queueFor(frame).deleteNode(frame);
+        }
+        queueOf[frame] = NONE;
+    }
+
+
+    /**
+     * Gets the queue a tracked frame belongs to
+     *
+     * @param frame
+     *            the frame
+     * @return A1in or Am
+     */
+    private FrameList queueFor(int frame) {
+        return queueOf[frame] == IN_AM ? am : a1in;
+    }
+
+
+    /**
+     * Adds an evicted block to the A1out ghost queue
+     *
+     * @param blockIndex
+     *            the evicted block
+     */
+    private void remember(int blockIndex) {
+        DualNode<Integer> ghost = new DualNode<>(blockIndex);
+        a1out.prependNode(ghost);
+        ghostMap.add(blockIndex, ghost);
+        if (a1out.listSize() > outLimit) {
+            ghostMap.delete(a1out.extractFromEnd().getElementData());
+        }
+    }
+}
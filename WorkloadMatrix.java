@@ -0,0 +1,425 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs the whole sort over a matrix of file sizes, pool sizes and data
+ * distributions. Every input starts as a FileGenerator binary file and is
+ * then rearranged into its distribution. Each cell is sorted a few times
+ * from a fresh copy, checked with CheckFile, and the median hits, reads,
+ * writes and time are reported. One untimed sort first warms up the JIT.
+ *
+ * Given a baseline saved by an earlier run, every cell is compared with
+ * it. A cell regresses when its reads, writes or time grow, or its hits
+ * fall, by more than the tolerance. Pivots are drawn at random, so block
+ * counts vary a little between runs and time varies more, which is why
+ * time has its own tolerance. Changes under 16 blocks or 20 ms never
+ * count, since small cells would otherwise be flagged on noise. The exit
+ * status is 1 if any cell regressed
+ * or came out unsorted.
+ *
+ * Usage: java WorkloadMatrix {directory} {blocks,blocks,...}
+ * {buffers,buffers,...} [-dists=random,sorted,...] [-repeat=n]
+ * [-baseline=file] [-save=file] [-tolerance=f] [-timetolerance=f]
+ * [sort options]
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class WorkloadMatrix {
+    private static final String ALL_DISTRIBUTIONS =
+        "random,sorted,reverse,nearly,organ,dups";
+    private static final String[] OWN_FLAGS = { "-dists=", "-repeat=",
+        "-baseline=", "-save=", "-tolerance=", "-timetolerance=" };
+    private static final String[] METRICS = { "hits", "reads", "writes",
+        "millis" };
+    private static final String CSV_HEADER =
+        "blocks,buffers,data,hits,reads,writes,millis";
+    private static final int HITS = 0;
+    private static final int READS = 1;
+    private static final int WRITES = 2;
+    private static final int MILLIS = 3;
+    private static final int RECORD_SIZE = 4;
+    private static final int DUPLICATE_KEYS = 8;
+    private static final int NEARLY_SORTED_PERCENT = 1;
+    private static final long[] SLACK = { 16, 16, 16, 20 };
+    private static final int WARM_UP_BLOCKS = 256;
+    private File directory;
+    private List<String> sortFlags;
+    private int repeat;
+
+    /**
+     * Main method for the class
+     *
+     * @param args
+     *            command line arguments
+     * @throws Exception
+     *             if error in generating, sorting or checking a file
+     */
+    public static void main(String[] args) throws Exception {
+        RunOptions options = new RunOptions(args);
+        WorkloadMatrix matrix = new WorkloadMatrix(new File(args[0]), options
+            .getInt("repeat", 3), args);
+        double tolerance = options.getDouble("tolerance", 0.10);
+        double timeTolerance = options.getDouble("timetolerance", 0.25);
+        String baselineFile = options.getString("baseline", null);
+        HashTable<String, long[]> baseline = baselineFile != null
+            ? readResults(baselineFile)
+            : null;
+        StringBuilder results = new StringBuilder(CSV_HEADER).append('\n');
+        List<String> problems = new ArrayList<>();
+        File warmUp = matrix.generate(WARM_UP_BLOCKS, "random");
+        matrix.run(warmUp, args[2].split(",")[0], "warm-up", problems);
+        warmUp.delete();
+        System.out.println(
+            "Blocks  Buffers  Data        Hits    Reads   Writes  Time(ms)"
+                + (baseline != null ? "   Reads%  Writes%    Time%" : ""));
+        for (String data : options.getString("dists", ALL_DISTRIBUTIONS)
+            .split(",")) {
+            for (String blocks : args[1].split(",")) {
+                File input = matrix.generate(Integer.parseInt(blocks), data);
+                for (String buffers : args[2].split(",")) {
+                    String cell = blocks + "," + buffers + "," + data;
+                    long[] figures = matrix.run(input, buffers, cell,
+                        problems);
+                    results.append(cell);
+                    for (long figure : figures) {
+                        results.append(',').append(figure);
+                    }
+                    results.append('\n');
+                    System.out.printf("%6s  %7s  %-7s  %7d  %7d  %7d  %8d",
+                        blocks, buffers, data, figures[HITS], figures[READS],
+                        figures[WRITES], figures[MILLIS]);
+                    if (baseline != null) {
+                        compare(cell, figures, baseline.fetch(cell),
+                            tolerance, timeTolerance, problems);
+                    }
+                    System.out.println();
+                }
+                input.delete();
+            }
+        }
+        String saveFile = options.getString("save", null);
+        if (saveFile != null) {
+            try (FileWriter writer = new FileWriter(saveFile)) {
+                writer.write(results.toString());
+            }
+        }
+        System.out.println();
+        for (String problem : problems) {
+            System.out.println(problem);
+        }
+        System.out.println(problems.isEmpty()
+            ? "No regressions"
+            : problems.size() + " problem(s)");
+        System.exit(problems.isEmpty() ? 0 : 1);
+    }
+
+
+    /**
+     * Constructor for the WorkloadMatrix class
+     *
+     * @param directory
+     *            where the input and work files go
+     * @param repeat
+     *            how many times each cell is sorted
+     * @param args
+     *            the command line, whose options not meant for the matrix
+     *            are passed on to every sort
+     */
+    public WorkloadMatrix(File directory, int repeat, String[] args) {
+        this.directory = directory;
+        this.repeat = Math.max(1, repeat);
+        sortFlags = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            boolean own = false;
+            for (String flag : OWN_FLAGS) {
+                own |= args[i].startsWith(flag);
+            }
+            if (!own) {
+                sortFlags.add(args[i]);
+            }
+        }
+    }
+
+
+    /**
+     * Generates an input file with FileGenerator and rearranges its
+     * records into a distribution: "random" as generated, "sorted",
+     * "reverse", "nearly" (sorted with 1% of records swapped at random),
+     * "organ" (rising then falling) or "dups" (only 8 distinct keys)
+     *
+     * @param blocks
+     *            the file size in blocks
+     * @param data
+     *            the distribution
+     * @return the file
+     * @throws IOException
+     *             if error in writing the file
+     */
+    public File generate(int blocks, String data) throws IOException {
+        File input = File.createTempFile("matrix", ".bin", directory);
+        input.deleteOnExit();
+        new FileGenerator().generateFile(new String[] { "-b", input
+            .getPath(), String.valueOf(blocks) });
+        if (data.equals("random")) {
+            return input;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(input, "rw")) {
+            FileChannel channel = file.getChannel();
+            ByteBuffer bytes = ByteBuffer.allocate((int)channel.size());
+            while (bytes.hasRemaining() && channel.read(bytes, bytes
+                .position()) >= 0) {
+                // Keep reading until the buffer is full.
+            }
+            int[] records = new int[bytes.capacity() / RECORD_SIZE];
+            bytes.flip().asIntBuffer().get(records);
+            arrange(records, data);
+            bytes.clear().asIntBuffer().put(records);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, bytes.position());
+            }
+        }
+        return input;
+    }
+
+
+    /**
+     * Sorts copies of an input and checks them
+     *
+     * @param input
+     *            the unsorted file
+     * @param buffers
+     *            the pool size
+     * @param cell
+     *            the cell's name, for problems
+     * @param problems
+     *            where unsorted results are reported
+     * @return the median hits, reads, writes and milliseconds
+     * @throws Exception
+     *             if error in copying, sorting or checking
+     */
+    public long[] run(
+        File input,
+        String buffers,
+        String cell,
+        List<String> problems)
+        throws Exception {
+        File work = File.createTempFile("work", ".bin", directory);
+        work.deleteOnExit();
+        String[] parameters = new String[3 + sortFlags.size()];
+        parameters[0] = work.getPath();
+        parameters[1] = buffers;
+        parameters[2] = "matrix";
+        for (int i = 0; i < sortFlags.size(); i++) {
+            parameters[3 + i] = sortFlags.get(i);
+        }
+        long[][] samples = new long[METRICS.length][repeat];
+        for (int r = 0; r < repeat; r++) {
+            Files.copy(input.toPath(), work.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+            Quicksort.resetMetrics();
+            long startTime = System.nanoTime();
+            Sort algorithm = new Sort(parameters);
+            algorithm.sortFile();
+            algorithm.cleanUp();
+            samples[MILLIS][r] = (System.nanoTime() - startTime) / 1000000;
+            samples[HITS][r] = Quicksort.getSuccessfulRetrievals();
+            samples[READS][r] = Quicksort.getRetrievalAttempts();
+            samples[WRITES][r] = Quicksort.getStorageOperations();
+            if (!isSorted(work)) {
+                problems.add(cell + ": output not sorted");
+            }
+        }
+        work.delete();
+        long[] medians = new long[METRICS.length];
+        for (int m = 0; m < METRICS.length; m++) {
+            Arrays.sort(samples[m]);
+            medians[m] = samples[m][repeat / 2];
+        }
+        return medians;
+    }
+
+
+    /**
+     * Rearranges records into a distribution
+     *
+     * @param records
+     *            the records, as generated
+     * @param data
+     *            the distribution
+     */
+    private static void arrange(int[] records, String data) {
+        Random rng = new Random(42);
+        switch (data) {
+            case "sorted":
+                Arrays.sort(records);
+                break;
+            case "reverse":
+                Arrays.sort(records);
+                reverse(records);
+                break;
+            case "nearly":
+                Arrays.sort(records);
+                for (int i = 0; i < records.length * NEARLY_SORTED_PERCENT
+                    / 100; i++) {
+                    int a = rng.nextInt(records.length);
+                    int b = rng.nextInt(records.length);
+                    int held = records[a];
+                    records[a] = records[b];
+                    records[b] = held;
+                }
+                break;
+            case "organ":
+                Arrays.sort(records);
+                int[] pipe = new int[records.length];
+                for (int i = 0; i < records.length; i++) {
+                    int slot = i % 2 == 0 ? i / 2 : records.length - 1 - i
+                        / 2;
+                    pipe[slot] = records[i];
+                }
+                System.arraycopy(pipe, 0, records, 0, records.length);
+                break;
+            case "dups":
+                for (int i = 0; i < records.length; i++) {
+                    int key = (records[i] >> 16) % DUPLICATE_KEYS + 1;
+                    records[i] = (key << 16) | (records[i] & 0xFFFF);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: "
+                    + data);
+        }
+    }
+
+
+    /**
+     * Reverses an array
+     *
+     * @param records
+     *            the array
+     */
+    private static void reverse(int[] records) {
+        for (int i = 0, j = records.length - 1; i < j; i++, j--) {
+            int held = records[i];
+            records[i] = records[j];
+            records[j] = held;
+        }
+    }
+
+
+    /**
+     * Checks a file with CheckFile, hiding its record count message
+     *
+     * @param file
+     *            the file
+     * @return true if sorted
+     * @throws Exception
+     *             if error in reading the file
+     */
+    private static boolean isSorted(File file) throws Exception {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return new CheckFile().checkFile(file.getPath());
+        }
+        finally {
+            System.setOut(console);
+        }
+    }
+
+
+    /**
+     * Prints a cell's changes from the baseline and records regressions
+     *
+     * @param cell
+     *            the cell's name
+     * @param figures
+     *            this run's hits, reads, writes and milliseconds
+     * @param base
+     *            the baseline's figures, or null if it lacks the cell
+     * @param tolerance
+     *            the allowed growth of block counts, as a fraction
+     * @param timeTolerance
+     *            the allowed growth of time, as a fraction
+     * @param problems
+     *            where regressions are reported
+     */
+    private static void compare(
+        String cell,
+        long[] figures,
+        long[] base,
+        double tolerance,
+        double timeTolerance,
+        List<String> problems) {
+        if (base == null) {
+            System.out.print("  (not in baseline)");
+            return;
+        }
+        for (int m = 0; m < METRICS.length; m++) {
+            double change = base[m] == 0
+                ? (figures[m] == 0 ? 0 : 1)
+                : (double)(figures[m] - base[m]) / base[m];
+            if (m != HITS) {
+                System.out.printf("  %+6.1f%%", change * 100);
+            }
+            double allowed = m == MILLIS ? timeTolerance : tolerance;
+            long growth = m == HITS
+                ? base[m] - figures[m]
+                : figures[m] - base[m];
+            boolean worse = growth > SLACK[m] && (double)growth / Math.max(1,
+                base[m]) > allowed;
+            if (worse) {
+                problems.add(String.format(
+                    "%s: %s %+.1f%% (baseline %d, now %d)", cell,
+                    METRICS[m], change * 100, base[m], figures[m]));
+            }
+        }
+    }
+
+
+    /**
+     * Reads results saved with "-save"
+     *
+     * @param fileName
+     *            the results file
+     * @return the figures of each cell, keyed by "blocks,buffers,data"
+     * @throws IOException
+     *             if error in reading the file
+     */
+    private static HashTable<String, long[]> readResults(String fileName)
+        throws IOException {
+        HashTable<String, long[]> results = new HashTable<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(
+            fileName))) {
+            String line = reader.readLine();
+            if (!CSV_HEADER.equals(line)) {
+                throw new IOException(fileName + " is not a saved result");
+            }
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                long[] figures = new long[METRICS.length];
+                for (int m = 0; m < METRICS.length; m++) {
+                    figures[m] = Long.parseLong(fields[3 + m]);
+                }
+                results.add(fields[0] + "," + fields[1] + "," + fields[2],
+                    figures);
+            }
+        }
+        return results;
+    }
+}
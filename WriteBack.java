@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background write-back for the BufferPool. A dirty frame is copied into a
+ * staging buffer and written on the background I/O thread, so the frame is
+ * clean again at once and a later eviction does not have to write it.
+ *
+ * Frames holding consecutive blocks can be submitted together and are then
+ * written with one gathering write. Writes run in the order they were
+ * submitted. Before the pool reads or
+ * writes a block itself it waits for that block's pending write, so an
+ * older copy can never land on top of a newer one.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class WriteBack {
+    private static final int BLOCK_SIZE = 4096;
+    private FileChannel channel;
+    private ExecutorService ioWorker;
+    private HashTable<Integer, Future<?>> pendingMap;
+    private DoublyLinkedList<Pending> pendingOrder;
+    private DoublyLinkedList<ByteBuffer> spareBuffers;
+    private int writes;
+    private LongAdder writeCalls;
+
+    /**
+     * A block write that has been submitted
+     *
+     * @author Brettn
+     * @author cpiyush854
+     * @version 11/1/2023
+     */
+    private static class Pending {
+        private int blockIndex;
+        private ByteBuffer blockData;
+        private Future<?> done;
+    }
+
+    /**
+     * Constructor for the WriteBack class
+     *
+     * @param channel
+     *            channel of the disk file
+     * @param ioWorker
+     *            the background I/O thread
+     */
+    public WriteBack(FileChannel channel, ExecutorService ioWorker) {
+        this.channel = channel;
+        this.ioWorker = ioWorker;
+        pendingMap = new HashTable<>();
+        pendingOrder = new DoublyLinkedList<>();
+        spareBuffers = new DoublyLinkedList<>();
+        writeCalls = new LongAdder();
+    }
+
+
+    /**
+     * Copies frames holding consecutive blocks and writes the copies in the
+     * background with one gathering write
+     *
+     * @param firstBlock
+     *            the block held by the first frame
+     * @param frames
+     *            the frames to write, in block order
+     * @param count
+     *            how many frames to write
+     * @throws IOException
+     *             if an earlier background write failed
+     */
+    public void submitRun(int firstBlock, ByteBuffer[] frames, int count)
+        throws IOException {
+        retireFinished();
+        Pending[] run = new Pending[count];
+        ByteBuffer[] sources = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            run[i] = new Pending();
+            run[i].blockIndex = firstBlock + i;
+            DualNode<ByteBuffer> spare = spareBuffers.extractFromFront();
+            run[i].blockData = spare != null
+                ? spare.getElementData()
+                : ByteBuffer.allocateDirect(BLOCK_SIZE);
+            run[i].blockData.put(0, frames[i], 0, BLOCK_SIZE);
+            sources[i] = run[i].blockData;
+        }
+        long position = (long)firstBlock * BLOCK_SIZE;
+        Future<?> done = ioWorker.submit(() -> {
+            writeCalls.add(writeGathered(channel, sources, count, position));
+            return null;
+        });
+        for (Pending pending : run) {
+            pending.done = done;
+            pendingOrder.prependNode(new DualNode<>(pending));
+            pendingMap.delete(pending.blockIndex);
+            pendingMap.add(pending.blockIndex, done);
+        }
+        writes += count;
+    }
+
+
+    /**
+     * Writes buffers holding consecutive blocks with gathering writes,
+     * repeating until every buffer is written. Gathering writes go through
+     * the channel position, so they are serialized on the channel;
+     * positional reads and writes elsewhere are not affected. Each call is
+     * one sample of the "write" timer.
+     *
+     * @param channel
+     *            the disk file
+     * @param buffers
+     *            the blocks to write, in order
+     * @param count
+     *            how many buffers to write
+     * @param position
+     *            where the first block goes
+     * @return how many write calls were made
+     * @throws IOException
+     *             if error in writing the file
+     */
+    static int writeGathered(
+        FileChannel channel,
+        ByteBuffer[] buffers,
+        int count,
+        long position)
+        throws IOException {
+        LatencyHistogram timer = MetricsRegistry.timer("write");
+        long start = timer != null ? System.nanoTime() : 0;
+        int calls = 0;
+        long bytes = 0;
+        synchronized (channel) {
+            for (int i = 0; i < count; i++) {
+                buffers[i].clear();
+                bytes += buffers[i].remaining();
+            }
+            channel.position(position);
+            int first = 0;
+            while (first < count) {
+                channel.write(buffers, first, count - first);
+                calls++;
+                while (first < count && !buffers[first].hasRemaining()) {
+                    first++;
+                }
+            }
+        }
+        MetricsRegistry.counter("bytes written").add(bytes);
+        if (timer != null) {
+            timer.recordSince(start);
+        }
+        return calls;
+    }
+
+
+    /**
+     * Waits for the pending write of a block, if there is one
+     *
+     * @param blockIdx
+     *            the block about to be read or written
+     * @throws IOException
+     *             if the background write failed
+     */
+    public void await(int blockIdx) throws IOException {
+        Future<?> done = pendingMap.fetch(blockIdx);
+        if (done != null) {
+            ReadAhead.await(done);
+            pendingMap.delete(blockIdx);
+        }
+    }
+
+
+    /**
+     * Waits for every pending write
+     *
+     * @throws IOException
+     *             if a background write failed
+     */
+    public void drain() throws IOException {
+        while (!pendingOrder.listIsEmpty()) {
+            Pending pending = pendingOrder.extractFromEnd().getElementData();
+            ReadAhead.await(pending.done);
+            forget(pending);
+        }
+    }
+
+
+    /**
+     * Gets how many blocks were written in the background
+     *
+     * @return background writes
+     */
+    public int getWrites() {
+        return writes;
+    }
+
+
+    /**
+     * Gets how many write calls the background writes took
+     *
+     * @return background write calls
+     */
+    public long getWriteCalls() {
+        return writeCalls.sum();
+    }
+
+
+    /**
+     * Recycles the staging buffers of writes that have finished
+     *
+     * @throws IOException
+     *             if one of them failed
+     */
+    private void retireFinished() throws IOException {
+        DualNode<Pending> oldest = pendingOrder.fetchTail();
+        while (oldest != null && oldest.getElementData().done.isDone()) {
+            pendingOrder.deleteNode(oldest);
+            ReadAhead.await(oldest.getElementData().done);
+            forget(oldest.getElementData());
+            oldest = pendingOrder.fetchTail();
+        }
+    }
+
+
+    /**
+     * Drops a finished write from the pending map and keeps its buffer
+     *
+     * @param pending
+     *            the finished write
+     */
+    private void forget(Pending pending) {
+        if (pendingMap.fetch(pending.blockIndex) == pending.done) {
+            pendingMap.delete(pending.blockIndex);
+        }
+        spareBuffers.prependNode(new DualNode<>(pending.blockData));
+    }
+}
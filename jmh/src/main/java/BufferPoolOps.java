@@ -0,0 +1,41 @@
+import java.io.IOException;
+import project3.jmh.BufferPoolBenchmark;
+
+/**
+ * Drives a BufferPool for BufferPoolBenchmark
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class BufferPoolOps implements BufferPoolBenchmark.Ops {
+    private static final int RECORD_SIZE = 4;
+    private BufferPool pool;
+    private byte[] record = new byte[RECORD_SIZE];
+
+    @Override
+    public void open(String[] parameters) throws IOException {
+        Quicksort.resetMetrics();
+        pool = new BufferPool(parameters);
+    }
+
+
+    @Override
+    public byte read(long position) {
+        pool.readData(record, RECORD_SIZE, position);
+        return record[0];
+    }
+
+
+    @Override
+    public void write(long position) {
+        pool.writeData(record, RECORD_SIZE, position);
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        pool.purge();
+        pool.close();
+    }
+}
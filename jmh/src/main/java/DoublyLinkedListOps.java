@@ -0,0 +1,36 @@
+import project3.jmh.DoublyLinkedListBenchmark;
+
+/**
+ * Drives a DoublyLinkedList for DoublyLinkedListBenchmark
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class DoublyLinkedListOps implements DoublyLinkedListBenchmark.Ops {
+    private DoublyLinkedList<Integer> list;
+    private DualNode<Integer>[] nodes;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void fill(int count) {
+        list = new DoublyLinkedList<>();
+        nodes = new DualNode[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new DualNode<>(i);
+            list.appendNode(nodes[i]);
+        }
+    }
+
+
+    @Override
+    public void elevate(int node) {
+        list.elevate(nodes[node]);
+    }
+
+
+    @Override
+    public void elevateTail() {
+        list.elevate(list.fetchTail());
+    }
+}
@@ -0,0 +1,38 @@
+import project3.jmh.HashTableBenchmark;
+
+/**
+ * Drives a HashTable for HashTableBenchmark
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class HashTableOps implements HashTableBenchmark.Ops {
+    private HashTable<Integer, Integer> table;
+
+    @Override
+    public void fill(Integer[] keys) {
+        table = new HashTable<>();
+        for (Integer key : keys) {
+            table.add(key, key);
+        }
+    }
+
+
+    @Override
+    public Object fetch(Integer key) {
+        return table.fetch(key);
+    }
+
+
+    @Override
+    public void add(Integer key) {
+        table.add(key, key);
+    }
+
+
+    @Override
+    public Object delete(Integer key) {
+        return table.delete(key);
+    }
+}
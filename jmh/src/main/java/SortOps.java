@@ -0,0 +1,27 @@
+import java.io.IOException;
+import project3.jmh.SortBenchmark;
+
+/**
+ * Drives FileGenerator and Sort for SortBenchmark
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public class SortOps implements SortBenchmark.Ops {
+
+    @Override
+    public void generate(String fileName, int blocks) throws IOException {
+        new FileGenerator().generateFile(new String[] { "-b", fileName,
+            String.valueOf(blocks) });
+    }
+
+
+    @Override
+    public void sort(String[] parameters) throws IOException {
+        Quicksort.resetMetrics();
+        Sort algorithm = new Sort(parameters);
+        algorithm.sortFile();
+        algorithm.cleanUp();
+    }
+}
@@ -0,0 +1,174 @@
+package project3.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BufferPool.readData and writeData of one record. In the "hit" pattern
+ * every record lies in a block the pool holds, so only the lookup is
+ * timed. In the "miss" pattern records are spread over a file 64 times
+ * the pool, so almost every call evicts a frame and reads a block, and
+ * writes also pay for writing dirty victims back.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferPoolBenchmark {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int RECORD_SIZE = 4;
+    private static final int FILE_FACTOR = 64;
+    private static final int POSITION_MASK = (1 << 16) - 1;
+
+    /** "hit" or "miss" */
+    @Param({ "hit", "miss" })
+    public String pattern;
+
+    /** How many buffers the pool has */
+    @Param({ "100" })
+    public int buffers;
+
+    /** Extra "-name=value" pool options, or empty */
+    @Param({ "" })
+    public String options;
+
+    private Ops pool;
+    private File data;
+    private long[] positions;
+    private int cursor;
+
+    /**
+     * The BufferPool operations being timed
+     */
+    public interface Ops {
+
+        /**
+         * Opens a pool on a file
+         *
+         * @param parameters
+         *            the file name, the buffer count, a stats file name
+         *            and any options, as on the command line
+         * @throws IOException
+         *             if error in opening the file
+         */
+        void open(String[] parameters) throws IOException;
+
+
+        /**
+         * Reads one record with readData
+         *
+         * @param position
+         *            the record's byte position
+         * @return the record's first byte
+         */
+        byte read(long position);
+
+
+        /**
+         * Writes one record with writeData
+         *
+         * @param position
+         *            the record's byte position
+         */
+        void write(long position);
+
+
+        /**
+         * Purges and closes the pool
+         *
+         * @throws IOException
+         *             if error in writing or closing the file
+         */
+        void close() throws IOException;
+    }
+
+
+    /**
+     * Creates the data file, opens the pool and picks the positions
+     *
+     * @throws IOException
+     *             if error in creating the file
+     * @throws ReflectiveOperationException
+     *             if the fixture cannot be loaded
+     */
+    @Setup
+    public void setUp() throws IOException, ReflectiveOperationException {
+        int blocks = buffers * FILE_FACTOR;
+        data = File.createTempFile("pool", ".bin");
+        try (RandomAccessFile file = new RandomAccessFile(data, "rw")) {
+            byte[] block = new byte[BLOCK_SIZE];
+            new Random(7).nextBytes(block);
+            for (int b = 0; b < blocks; b++) {
+                file.write(block);
+            }
+        }
+        pool = Fixtures.load("BufferPoolOps", Ops.class);
+        String[] parameters = (data.getPath() + " " + buffers + " jmh "
+            + options).trim().split(" +");
+        pool.open(parameters);
+        int span = pattern.equals("hit") ? buffers : blocks;
+        Random rng = new Random(42);
+        positions = new long[POSITION_MASK + 1];
+        for (int i = 0; i <= POSITION_MASK; i++) {
+            positions[i] = (long)rng.nextInt(span) * BLOCK_SIZE + rng.nextInt(
+                BLOCK_SIZE / RECORD_SIZE) * RECORD_SIZE;
+        }
+        for (int b = 0; b < Math.min(buffers, blocks); b++) {
+            pool.read((long)b * BLOCK_SIZE);
+        }
+    }
+
+
+    /**
+     * Closes the pool and deletes the file
+     *
+     * @throws IOException
+     *             if error in closing the pool
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.close();
+        data.delete();
+    }
+
+
+    /**
+     * Reads a record
+     *
+     * @return its first byte
+     */
+    @Benchmark
+    public byte readData() {
+        return pool.read(positions[cursor++ & POSITION_MASK]);
+    }
+
+
+    /**
+     * Writes a record
+     */
+    @Benchmark
+    public void writeData() {
+        pool.write(positions[cursor++ & POSITION_MASK]);
+    }
+}
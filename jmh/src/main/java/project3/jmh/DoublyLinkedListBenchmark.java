@@ -0,0 +1,107 @@
+package project3.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DoublyLinkedList.elevate, the move to front behind the LRU lists. The
+ * tail case is what an LRU list does on every eviction-order hit; the
+ * random case scatters the nodes touched across memory.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoublyLinkedListBenchmark {
+    private static final int ORDER_MASK = (1 << 16) - 1;
+
+    /** How many nodes the list holds */
+    @Param({ "100", "100000" })
+    public int size;
+
+    private Ops list;
+    private int[] order;
+    private int cursor;
+
+    /**
+     * The DoublyLinkedList operations being timed
+     */
+    public interface Ops {
+
+        /**
+         * Fills a new list
+         *
+         * @param count
+         *            how many nodes to add
+         */
+        void fill(int count);
+
+
+        /**
+         * Moves a node to the front
+         *
+         * @param node
+         *            which node, by the order it was added in
+         */
+        void elevate(int node);
+
+
+        /**
+         * Moves the last node to the front
+         */
+        void elevateTail();
+    }
+
+
+    /**
+     * Builds the list and the random order
+     *
+     * @throws ReflectiveOperationException
+     *             if the fixture cannot be loaded
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        list = Fixtures.load("DoublyLinkedListOps", Ops.class);
+        list.fill(size);
+        Random rng = new Random(42);
+        order = new int[ORDER_MASK + 1];
+        for (int i = 0; i <= ORDER_MASK; i++) {
+            order[i] = rng.nextInt(size);
+        }
+    }
+
+
+    /**
+     * Moves a random node to the front
+     */
+    @Benchmark
+    public void elevateRandom() {
+        list.elevate(order[cursor++ & ORDER_MASK]);
+    }
+
+
+    /**
+     * Moves the tail to the front
+     */
+    @Benchmark
+    public void elevateTail() {
+        list.elevateTail();
+    }
+}
@@ -0,0 +1,43 @@
+package project3.jmh;
+
+/**
+ * Loads the classes that drive the project's code. The project lives in
+ * the unnamed package, which a named package cannot import, and JMH
+ * refuses benchmarks in the unnamed package. So each benchmark declares
+ * the operations it times as an interface, a small class in the unnamed
+ * package implements it, and the benchmark loads that class by name once
+ * during setup. Every call site then sees a single implementation, which
+ * the JIT inlines, so the indirection is not part of what is measured.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+public final class Fixtures {
+
+    /**
+     * Not instantiated
+     */
+    private Fixtures() {
+    }
+
+
+    /**
+     * Creates a fixture from the unnamed package
+     *
+     * @param <T>
+     *            the operations the fixture provides
+     * @param className
+     *            the fixture's class name
+     * @param type
+     *            the operations interface
+     * @return a new fixture
+     * @throws ReflectiveOperationException
+     *             if the class cannot be created
+     */
+    public static <T> T load(String className, Class<T> type)
+        throws ReflectiveOperationException {
+        return type.cast(Class.forName(className).getDeclaredConstructor()
+            .newInstance());
+    }
+}
@@ -0,0 +1,146 @@
+package project3.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HashTable fetch, add and delete at several table sizes. Keys are boxed
+ * once in setup and visited in a shuffled order so the timings are not
+ * boxing or one hot bucket. Adding and deleting are timed as a pair so the
+ * table stays the same size.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+    private static final int KEY_MASK = (1 << 16) - 1;
+
+    /** How many entries the table holds */
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private Ops table;
+    private Integer[] present;
+    private Integer[] absent;
+    private int cursor;
+
+    /**
+     * The HashTable operations being timed
+     */
+    public interface Ops {
+
+        /**
+         * Fills a new table
+         *
+         * @param keys
+         *            the keys to add
+         */
+        void fill(Integer[] keys);
+
+
+        /**
+         * Looks up a key
+         *
+         * @param key
+         *            the key
+         * @return the value, or null
+         */
+        Object fetch(Integer key);
+
+
+        /**
+         * Adds a key
+         *
+         * @param key
+         *            the key
+         */
+        void add(Integer key);
+
+
+        /**
+         * Deletes a key
+         *
+         * @param key
+         *            the key
+         * @return the value it had, or null
+         */
+        Object delete(Integer key);
+    }
+
+
+    /**
+     * Builds the table and the key orders
+     *
+     * @throws ReflectiveOperationException
+     *             if the fixture cannot be loaded
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        table = Fixtures.load("HashTableOps", Ops.class);
+        Random rng = new Random(42);
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+        table.fill(keys);
+        present = new Integer[KEY_MASK + 1];
+        absent = new Integer[KEY_MASK + 1];
+        for (int i = 0; i <= KEY_MASK; i++) {
+            present[i] = keys[rng.nextInt(size)];
+            absent[i] = size + rng.nextInt(size);
+        }
+    }
+
+
+    /**
+     * Looks up a key that is in the table
+     *
+     * @return the value found
+     */
+    @Benchmark
+    public Object fetchHit() {
+        return table.fetch(present[cursor++ & KEY_MASK]);
+    }
+
+
+    /**
+     * Looks up a key that is not in the table
+     *
+     * @return null
+     */
+    @Benchmark
+    public Object fetchMiss() {
+        return table.fetch(absent[cursor++ & KEY_MASK]);
+    }
+
+
+    /**
+     * Adds a new key and deletes it again
+     *
+     * @return the deleted value
+     */
+    @Benchmark
+    public Object addDelete() {
+        Integer key = absent[cursor++ & KEY_MASK];
+        table.add(key);
+        return table.delete(key);
+    }
+}
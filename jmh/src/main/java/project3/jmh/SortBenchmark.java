@@ -0,0 +1,137 @@
+package project3.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sort.sortFile end to end on a generated binary file, across file sizes
+ * and pool sizes. Each measurement sorts a fresh copy of the same input,
+ * made before the clock starts.
+ *
+ * @author Brettn
+ * @author cpiyush854
+ * @version 11/1/2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SortBenchmark {
+
+    /** File size in blocks */
+    @Param({ "256", "2048" })
+    public int blocks;
+
+    /** How many buffers the pool has */
+    @Param({ "10", "100" })
+    public int buffers;
+
+    /** Extra "-name=value" sort options, or empty */
+    @Param({ "" })
+    public String options;
+
+    private Ops sort;
+    private File input;
+    private File data;
+
+    /**
+     * The sort operations being timed
+     */
+    public interface Ops {
+
+        /**
+         * Generates a binary input file with FileGenerator
+         *
+         * @param fileName
+         *            the file to write
+         * @param blocks
+         *            its size in blocks
+         * @throws IOException
+         *             if error in writing the file
+         */
+        void generate(String fileName, int blocks) throws IOException;
+
+
+        /**
+         * Sorts a file
+         *
+         * @param parameters
+         *            the file name, the buffer count, a stats file name
+         *            and any options, as on the command line
+         * @throws IOException
+         *             if error in sorting
+         */
+        void sort(String[] parameters) throws IOException;
+    }
+
+
+    /**
+     * Generates the input
+     *
+     * @throws IOException
+     *             if error in writing the file
+     * @throws ReflectiveOperationException
+     *             if the fixture cannot be loaded
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException, ReflectiveOperationException {
+        sort = Fixtures.load("SortOps", Ops.class);
+        input = File.createTempFile("input", ".bin");
+        data = File.createTempFile("sort", ".bin");
+        sort.generate(input.getPath(), blocks);
+    }
+
+
+    /**
+     * Restores the unsorted input before each sort
+     *
+     * @throws IOException
+     *             if error in copying the file
+     */
+    @Setup(Level.Iteration)
+    public void restore() throws IOException {
+        Files.copy(input.toPath(), data.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+
+    /**
+     * Deletes the files
+     */
+    @TearDown(Level.Trial)
+    public void delete() {
+        input.delete();
+        data.delete();
+    }
+
+
+    /**
+     * Sorts the file
+     *
+     * @throws IOException
+     *             if error in sorting
+     */
+    @Benchmark
+    public void sortFile() throws IOException {
+        sort.sort((data.getPath() + " " + buffers + " jmh " + options).trim()
+            .split(" +"));
+    }
+}